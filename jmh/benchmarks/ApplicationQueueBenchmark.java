@@ -0,0 +1,62 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: ApplicationQueueBenchmark.java
+///////////////////////////////////////////////////////////////////////////////
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the hot paths of ApplicationQueue, for heaps of arity 2, 4 and 8, so that the
+ * arity can be chosen per workload. Build and run them with:
+ *
+ * <pre>
+ * mvn -B -P jmh package
+ * java -jar target/benchmarks.jar ApplicationQueueBenchmark -prof gc
+ * </pre>
+ *
+ * where -prof gc reports the bytes allocated per operation as gc.alloc.rate.norm. The
+ * enqueueDequeue, replaceTop, peek and copyOnWrite cases measure one operation on a full queue,
+ * the traversal and sortedArray cases one pass over the whole queue.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ApplicationQueueBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  private int size; // number of Applications of the queue
+
+  @Param({"2", "4", "8"})
+  private int arity; // number of children of each node of the heap
+
+  @Param({"enqueueDequeue", "replaceTop", "peek", "copyOnWrite", "traversal", "sortedArray"})
+  private String operation; // name of the measured operation
+
+  private LongSupplier workload; // runs one operation per call
+
+  @Setup
+  public void setUp() {
+    this.workload = Workloads.create(this.operation, this.size, this.arity, "uniform");
+  }
+
+  @Benchmark
+  public long run() {
+    return this.workload.getAsLong();
+  }
+}
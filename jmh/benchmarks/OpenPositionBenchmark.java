@@ -0,0 +1,55 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: OpenPositionBenchmark.java
+///////////////////////////////////////////////////////////////////////////////
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of OpenPosition, for uniform, skewed and adversarial (increasing) scores. The add
+ * case measures one add() to a full position, getTotalScore one read of the running sum, and
+ * export one exportApplications() of the whole position. Run them as the ApplicationQueueBenchmark
+ * ones, with -prof gc to report the bytes allocated per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class OpenPositionBenchmark {
+  @Param({"1000", "100000", "1000000"})
+  private int size; // capacity of the position
+
+  @Param({"uniform", "skewed", "adversarial"})
+  private String distribution; // distribution of the offered scores
+
+  @Param({"add", "getTotalScore", "export"})
+  private String operation; // name of the measured operation
+
+  private LongSupplier workload; // runs one operation per call
+
+  @Setup
+  public void setUp() {
+    this.workload = Workloads.create(this.operation, this.size, 2, this.distribution);
+  }
+
+  @Benchmark
+  public long run() {
+    return this.workload.getAsLong();
+  }
+}
@@ -0,0 +1,55 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: ShortlistBenchmark.java
+///////////////////////////////////////////////////////////////////////////////
+
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of ParallelShortlister, which shortlist size Applications into a position of 1000
+ * vacancies with the common ForkJoinPool, against the same shortlist built by successive add()
+ * calls. Compare the two operations at each size to find the size from which the parallel path is
+ * faster on a given machine; it is never faster on a single core.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ShortlistBenchmark {
+  @Param({"10000", "100000", "1000000", "10000000"})
+  private int size; // number of Applications to shortlist
+
+  @Param({"uniform", "adversarial"})
+  private String distribution; // distribution of the shortlisted scores
+
+  @Param({"parallelShortlist", "sequentialShortlist"})
+  private String operation; // name of the measured operation
+
+  private LongSupplier workload; // runs one operation per call
+
+  @Setup
+  public void setUp() {
+    this.workload = Workloads.create(this.operation, this.size, 2, this.distribution);
+  }
+
+  @Benchmark
+  public long run() {
+    return this.workload.getAsLong();
+  }
+}
@@ -0,0 +1,40 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: Workloads.java
+///////////////////////////////////////////////////////////////////////////////
+
+package benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.function.LongSupplier;
+
+/**
+ * Creates the workloads of BenchmarkWorkloads, a class of the default package, which the
+ * benchmarks of this package can only reach by reflection
+ */
+final class Workloads {
+
+  private Workloads() {
+  }
+
+  /**
+   * Creates the named workload with BenchmarkWorkloads.create()
+   *
+   * @param operation    the name of the measured operation
+   * @param size         the number of Applications of the queue or position, or to shortlist
+   * @param arity        the arity of the ApplicationQueue
+   * @param distribution the distribution of the scores
+   * @return the workload running one operation per call
+   */
+  static LongSupplier create(String operation, int size, int arity, String distribution) {
+    try {
+      return (LongSupplier) Class.forName("BenchmarkWorkloads")
+          .getMethod("create", String.class, int.class, int.class, String.class)
+          .invoke(null, operation, size, arity, distribution);
+    } catch (InvocationTargetException e) {
+      throw new IllegalStateException("cannot create workload " + operation, e.getCause());
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException("cannot create workload " + operation, e);
+    }
+  }
+}
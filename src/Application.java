@@ -7,10 +7,19 @@
  * This class models a application with a name and due date
  */
 public class Application implements Comparable<Application>{
+    public static final int MIN_SCORE = 0;   // lowest score an applicant can have
+    public static final int MAX_SCORE = 100; // highest score an applicant can have
+
     private final String name;  // name of this applicant
     private final String email; // email of this applicant
     private final int score;    // estimated score of this applicant
     
+    // status codes returned by validate()
+    public static final int VALID = 0;         // the information makes a valid Application
+    public static final int INVALID_NAME = 1;  // the name is null or blank
+    public static final int INVALID_EMAIL = 2; // the email is null or does not have a single @
+    public static final int INVALID_SCORE = 3; // the score is not in the 0 .. 100 range
+    
     /**
      * Creates a new Application with the given information
      *
@@ -22,20 +31,32 @@ public class Application implements Comparable<Application>{
      *                                  is not in the 0 .. 100 range.
      */
     public Application(String name, String email, int score) {
+        this(name, email, score, validate(name, email, score));
+    }
+
+    /**
+     * Creates a new Application with the given information, already validated. Only called with
+     * the status just returned by validate(), so that no Application skips the validation.
+     *
+     * @param name       name of this applicant
+     * @param email      email of this applicant
+     * @param score      estimated score of this applicant
+     * @param status     the status code returned by validate() for this information
+     * @throws IllegalArgumentException if status is not VALID
+     */
+    private Application(String name, String email, int score, int status) {
         // throws an IllegalArgumentException if the provided name is null or blank
-      if(name == null || name.isBlank()) {
+      if(status == INVALID_NAME) {
         throw new IllegalArgumentException("provided name is null or blank");
       }
 
         // ... or if the provided email is null, or has no or multiple @
-      if(email == null || !email.contains("@") 
-          || email.substring(email.indexOf("@")+1).contains("@")
-          || email.substring(0, email.indexOf("@")).contains("@")) {
+      if(status == INVALID_EMAIL) {
         throw new IllegalArgumentException("email is null, or has no or multiple @");
       }
 
         // ... or if the provided score is not in the 0 .. 100 range
-      if(score > 100 || score < 0) {
+      if(status == INVALID_SCORE) {
         throw new IllegalArgumentException("provided score is not in the 0 .. 100 range");
       }
 
@@ -45,6 +66,87 @@ public class Application implements Comparable<Application>{
         this.score = score;
     }
 
+    /**
+     * Checks whether the given information makes a valid Application, without throwing any
+     * exception or allocating anything. The name and the email are each scanned once.
+     *
+     * @param name       name of an applicant
+     * @param email      email of an applicant
+     * @param score      estimated score of an applicant
+     * @return VALID if an Application can be created with this information, or else the status
+     *         code of the first invalid field: INVALID_NAME, INVALID_EMAIL or INVALID_SCORE
+     */
+    public static int validate(String name, String email, int score) {
+        // the name must have a non-whitespace character
+      if(name == null) {
+        return INVALID_NAME;
+      }
+      boolean blank = true;
+      for(int i = 0; i < name.length() && blank; i++) {
+        blank = Character.isWhitespace(name.charAt(i));
+      }
+      if(blank) {
+        return INVALID_NAME;
+      }
+
+        // the email must have exactly one @
+      if(email == null) {
+        return INVALID_EMAIL;
+      }
+      int at = 0;
+      for(int i = 0; i < email.length() && at < 2; i++) {
+        if(email.charAt(i) == '@') {
+          at++;
+        }
+      }
+      if(at != 1) {
+        return INVALID_EMAIL;
+      }
+
+      if(score > MAX_SCORE || score < MIN_SCORE) {
+        return INVALID_SCORE;
+      }
+
+      return VALID;
+    }
+
+    /**
+     * Creates a new Application with the given information if it is valid, without throwing any
+     * exception otherwise. Use validate() to know why some information is invalid.
+     *
+     * @param name       name of this applicant
+     * @param email      email of this applicant
+     * @param score      estimated score of this applicant
+     * @return a new Application, or null if the information is invalid
+     */
+    public static Application tryCreate(String name, String email, int score) {
+      int status = validate(name, email, score);
+      if(status != VALID) {
+        return null;
+      }
+      return new Application(name, email, score, status);
+    }
+
+    /**
+     * Creates a new Application with the given information if it is valid, as tryCreate() does,
+     * and counts the status code returned by validate() for it, so that the information is only
+     * validated once
+     *
+     * @param name       name of this applicant
+     * @param email      email of this applicant
+     * @param score      estimated score of this applicant
+     * @param counts     counts[status] is incremented for the status code of this information
+     * @return a new Application, or null if the information is invalid
+     */
+    static Application tryCreate(String name, String email, int score, int[] counts) {
+      int status = validate(name, email, score);
+      counts[status]++;
+      if(status != VALID) {
+        return null;
+      }
+      return new Application(name, email, score, status);
+    }
+
     /**
      * Returns the name of this Applicant
      * 
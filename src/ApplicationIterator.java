@@ -3,51 +3,140 @@
 // Title: ApplicationIterator.java
 ///////////////////////////////////////////////////////////////////////////////
 
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
 /**
  * Implements an iterator for Applications, which returns the Applications in order from earliest to
  * latest based on their order in a priority queue.
+ *
+ * The iterator neither copies nor dequeues the queue. It walks the heap lazily, keeping a small
+ * frontier min-heap of the indices of the elements which may come next: the root at first, then
+ * the children of every returned element. Returning the first k elements therefore costs
+ * O(k log k) time and O(k) memory (times the arity of the heap), whatever the size of the queue.
  */
 public class ApplicationIterator implements Iterator<Application> {
-  private ApplicationQueue queue; // a copy of the priority queue of applications to iterate over
+  private static final int INITIAL_FRONTIER_LENGTH = 8; // length of the frontier when created
+
+  private final ApplicationQueue queue; // the priority queue of applications to iterate over
+  private final int expectedModCount; // modification count of the queue when this was created
+  private int[] frontier; // min-heap of the queue indices which may be returned next
+  private int frontierSize; // number of indices in the frontier
 
   /**
    * Creates a new ApplicationIterator which iterates over the elements of the given ApplicationQueue
-   * in order from lowest-scored application to the highest-scored application.
-   * 
+   * in order from lowest-scored application to the highest-scored application. The queue must not
+   * be modified while it is iterated over.
+   *
    * @param queue the ApplicationQueue to iterate over
    */
   public ApplicationIterator(ApplicationQueue queue) {
-    this.queue = queue.deepCopy(); // we are going to work on a deep copy of the provided queue
-                                   // as input parameter. 
+    this.queue = queue;
+    this.expectedModCount = queue.modCount;
+    this.frontier = new int[INITIAL_FRONTIER_LENGTH];
+
+    // the root is the first element to return
+    if (!queue.isEmpty()) {
+      this.frontier[0] = 0;
+      this.frontierSize = 1;
+    }
   }
 
   /**
    * Returns true if the iteration has more elements.
-   * 
+   *
    * @return {@code true} if the iteration has more elements
    */
   @Override
   public boolean hasNext() {
-    if(!queue.isEmpty()) {
-      return true; // more element
-    }
-    return false;  // no more element
+    return this.frontierSize != 0;
   }
 
   /**
    * Returns the next element in the iteration.
-   * 
+   *
    * @return the next element in the iteration.
-   * @throws NoSuchElementException with a descriptive error message if the iteration has no more
-   *                                elements
+   * @throws NoSuchElementException          with a descriptive error message if the iteration has
+   *                                         no more elements
+   * @throws ConcurrentModificationException if the queue was modified since this iterator was
+   *                                         created
    */
   @Override
   public Application next() {
     if (!hasNext())
       throw new NoSuchElementException("No more elements in this iteration");
-    return this.queue.dequeue();
+    if (this.queue.modCount != this.expectedModCount)
+      throw new ConcurrentModificationException("the queue was modified during the iteration");
+
+    // the lowest-scored index of the frontier is the next element of the iteration
+    int next = this.frontier[0];
+    this.frontierSize--;
+    if (this.frontierSize != 0) {
+      this.frontier[0] = this.frontier[this.frontierSize];
+      percolateDown();
+    }
+
+    // its children may now be returned
+    int size = this.queue.size();
+    int arity = this.queue.getArity();
+    if (size >= 2 && next <= (size - 2) / arity) { // next has at least one child
+      int first = next * arity + 1;
+      int end = Math.min(first + arity, size);
+      for (int child = first; child < end; child++) {
+        push(child);
+      }
+    }
+
+    return this.queue.get(next);
+  }
+
+  /**
+   * Adds the given queue index to the frontier, growing the frontier if needed.
+   *
+   * @param index index of an element of the queue
+   */
+  private void push(int index) {
+    if (this.frontierSize == this.frontier.length) {
+      int[] larger = new int[this.frontier.length * 2];
+      System.arraycopy(this.frontier, 0, larger, 0, this.frontierSize);
+      this.frontier = larger;
+    }
+
+    // percolate the new index up the frontier
+    int score = this.queue.getScore(index);
+    int i = this.frontierSize++;
+    while (i > 0) {
+      int parent = (i - 1) / 2;
+      if (this.queue.getScore(this.frontier[parent]) <= score) {
+        break;
+      }
+      this.frontier[i] = this.frontier[parent];
+      i = parent;
+    }
+    this.frontier[i] = index;
+  }
+
+  /**
+   * Restores the min-heap invariant of the frontier by percolating its root down.
+   */
+  private void percolateDown() {
+    int index = this.frontier[0];
+    int score = this.queue.getScore(index);
+    int i = 0;
+    int child;
+    while ((child = i * 2 + 1) < this.frontierSize) {
+      // get the lowest-scored child
+      if (child + 1 < this.frontierSize && this.queue.getScore(this.frontier[child + 1]) < this.queue
+          .getScore(this.frontier[child])) {
+        child++;
+      }
+      if (this.queue.getScore(this.frontier[child]) >= score) {
+        break;
+      }
+      this.frontier[i] = this.frontier[child];
+      i = child;
+    }
+    this.frontier[i] = index;
   }
 }
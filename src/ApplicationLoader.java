@@ -0,0 +1,522 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: ApplicationLoader.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Streams Applications from a file into an open position. The file is read through a FileChannel
+ * into a reusable buffer, and each line is parsed in place: the score is parsed and compared with
+ * the admission threshold of the position before the name and email Strings are created, so that
+ * the rows which would be rejected anyway allocate nothing. Positions which filter duplicate emails
+ * or have a journal are given every valid row instead, as add() records their rejections.
+ *
+ * Two formats are supported, both UTF-8 encoded with one Application per line:
+ * <ul>
+ * <li>CSV: {@code name,email,score}. The name may contain commas but fields are not quoted. A
+ * first line whose score field is {@code score} is a header and is skipped.</li>
+ * <li>JSON Lines: {@code {"name": "...", "email": "...", "score": 87}}, with the keys in any
+ * order. Other keys are ignored as long as their values are strings or numbers.</li>
+ * </ul>
+ * Malformed rows and invalid Applications are counted as rejected.
+ */
+public class ApplicationLoader {
+  private static final int INITIAL_BUFFER_LENGTH = 1 << 20; // length of the read buffer
+
+  private final OpenPosition position; // the position to add the Applications to
+  private int admitted; // number of admitted Applications
+  private int rejected; // number of rejected Applications, including malformed rows
+  private int evicted; // number of evicted Applications
+
+  // fields of the row being parsed, names and emails being [start, end) ranges of the buffer
+  private byte[] line; // the buffer holding the row
+  private int nameStart; // index of the first byte of the name
+  private int nameEnd; // index after the last byte of the name
+  private boolean nameEscaped; // whether the JSON name contains escape sequences
+  private int emailStart; // index of the first byte of the email
+  private int emailEnd; // index after the last byte of the email
+  private boolean emailEscaped; // whether the JSON email contains escape sequences
+  private int score; // the parsed score, -1 if missing or invalid
+
+  /**
+   * Creates a new ApplicationLoader adding to the given position
+   *
+   * @param position the position to add the Applications to
+   */
+  private ApplicationLoader(OpenPosition position) {
+    this.position = position;
+  }
+
+  /**
+   * Adds the Applications of the given CSV file to the given position, in order.
+   *
+   * @param file     the CSV file to read
+   * @param position the position to add the Applications to
+   * @return the number of admitted, rejected and evicted Applications
+   * @throws IOException if the file cannot be read
+   */
+  public static BatchResult loadCsv(Path file, OpenPosition position) throws IOException {
+    ApplicationLoader loader = new ApplicationLoader(position);
+    loader.load(file, false);
+    return loader.result();
+  }
+
+  /**
+   * Adds the Applications of the given JSON Lines file to the given position, in order.
+   *
+   * @param file     the JSON Lines file to read
+   * @param position the position to add the Applications to
+   * @return the number of admitted, rejected and evicted Applications
+   * @throws IOException if the file cannot be read
+   */
+  public static BatchResult loadJsonLines(Path file, OpenPosition position) throws IOException {
+    ApplicationLoader loader = new ApplicationLoader(position);
+    loader.load(file, true);
+    return loader.result();
+  }
+
+  /**
+   * Returns the counts of this loader
+   *
+   * @return the number of admitted, rejected and evicted Applications
+   */
+  private BatchResult result() {
+    return new BatchResult(this.admitted, this.rejected, this.evicted);
+  }
+
+  /**
+   * Reads the given file by chunks and processes each complete line. A line longer than the
+   * buffer makes the buffer grow.
+   *
+   * @param file the file to read
+   * @param json whether the file is in the JSON Lines format rather than CSV
+   * @throws IOException if the file cannot be read
+   */
+  private void load(Path file, boolean json) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate(INITIAL_BUFFER_LENGTH);
+      boolean first = true;
+
+      while (true) {
+        int read = channel.read(buffer);
+        byte[] bytes = buffer.array();
+        int limit = buffer.position();
+
+        // process every complete line of the buffer
+        int start = 0;
+        for (int i = 0; i < limit; i++) {
+          if (bytes[i] == '\n') {
+            processLine(bytes, start, i, json, first);
+            first = false;
+            start = i + 1;
+          }
+        }
+
+        if (read < 0) {
+          if (start < limit) {
+            processLine(bytes, start, limit, json, first); // last line without a newline
+          }
+          return;
+        }
+
+        // keep the incomplete line at the beginning of the buffer, growing it if it is full
+        if (start == 0 && limit == bytes.length) {
+          ByteBuffer larger = ByteBuffer.allocate(bytes.length * 2);
+          larger.put(bytes, 0, limit);
+          buffer = larger;
+        } else {
+          System.arraycopy(bytes, start, bytes, 0, limit - start);
+          buffer.position(limit - start);
+        }
+      }
+    }
+  }
+
+  /**
+   * Parses one line and adds its Application to the position if it beats the threshold.
+   *
+   * @param bytes the buffer holding the line
+   * @param start index of the first byte of the line
+   * @param end   index after the last byte of the line, excluding the newline
+   * @param json  whether the line is in the JSON Lines format rather than CSV
+   * @param first whether this is the first line of the file
+   */
+  private void processLine(byte[] bytes, int start, int end, boolean json, boolean first) {
+    if (end > start && bytes[end - 1] == '\r') {
+      end--;
+    }
+    if (isBlank(bytes, start, end)) {
+      return;
+    }
+
+    this.line = bytes;
+    boolean parsed = json ? parseJson(start, end) : parseCsv(start, end);
+    if (!parsed) {
+      if (!(first && !json && isCsvHeader(start, end))) {
+        this.rejected++;
+      }
+      return;
+    }
+
+    // reject before creating any String if the score does not beat the threshold, unless the
+    // position must see the rejected Application to filter its email or journal it
+    boolean full = this.position.isFull();
+    if (full && this.score <= this.position.getMinScore() && !this.position.recordsRejections()) {
+      PositionMetrics metrics = this.position.getMetrics();
+      if (metrics != null) {
+        metrics.recordRejected(1);
+      }
+      this.rejected++;
+      return;
+    }
+
+    Application application =
+        Application.tryCreate(string(this.nameStart, this.nameEnd, this.nameEscaped),
+            string(this.emailStart, this.emailEnd, this.emailEscaped), this.score);
+    if (application == null) {
+      this.rejected++;
+      return;
+    }
+
+    if (this.position.add(application)) {
+      this.admitted++;
+      if (full) {
+        this.evicted++;
+      }
+    } else {
+      this.rejected++;
+    }
+  }
+
+  /**
+   * Parses a CSV row, the email and score being the last two fields.
+   *
+   * @param start index of the first byte of the row
+   * @param end   index after the last byte of the row
+   * @return whether the row has three fields and a valid score
+   */
+  private boolean parseCsv(int start, int end) {
+    int scoreComma = lastIndexOf(',', start, end);
+    if (scoreComma < 0) {
+      return false;
+    }
+    int emailComma = lastIndexOf(',', start, scoreComma);
+    if (emailComma < 0) {
+      return false;
+    }
+
+    this.nameStart = start;
+    this.nameEnd = emailComma;
+    this.nameEscaped = false;
+    this.emailStart = emailComma + 1;
+    this.emailEnd = scoreComma;
+    this.emailEscaped = false;
+    this.score = parseScore(scoreComma + 1, end);
+    return this.score >= 0;
+  }
+
+  /**
+   * Checks whether the given CSV row is a header, i.e. its last field is {@code score}.
+   *
+   * @param start index of the first byte of the row
+   * @param end   index after the last byte of the row
+   * @return whether the row is a header
+   */
+  private boolean isCsvHeader(int start, int end) {
+    int comma = lastIndexOf(',', start, end);
+    if (comma < 0) {
+      return false;
+    }
+
+    int fieldStart = skipSpaces(comma + 1, end);
+    while (end > fieldStart && (this.line[end - 1] == ' ' || this.line[end - 1] == '\t')) {
+      end--;
+    }
+    return isKey("score", fieldStart, end);
+  }
+
+  /**
+   * Parses a JSON object holding the name, email and score of an Application.
+   *
+   * @param start index of the first byte of the row
+   * @param end   index after the last byte of the row
+   * @return whether the row is such an object and has a valid score
+   */
+  private boolean parseJson(int start, int end) {
+    byte[] bytes = this.line;
+    this.nameStart = -1;
+    this.emailStart = -1;
+    this.score = -1;
+
+    int i = skipSpaces(start, end);
+    if (i == end || bytes[i] != '{') {
+      return false;
+    }
+    i = skipSpaces(i + 1, end);
+    if (i < end && bytes[i] == '}') {
+      return false; // no field
+    }
+
+    while (i < end) {
+      // key
+      if (bytes[i] != '"') {
+        return false;
+      }
+      int keyStart = i + 1;
+      int keyEnd = endOfString(keyStart, end);
+      if (keyEnd < 0) {
+        return false;
+      }
+      i = skipSpaces(keyEnd + 1, end);
+      if (i == end || bytes[i] != ':') {
+        return false;
+      }
+      i = skipSpaces(i + 1, end);
+      if (i == end) {
+        return false;
+      }
+
+      // value
+      int valueEnd;
+      if (bytes[i] == '"') {
+        int valueStart = i + 1;
+        valueEnd = endOfString(valueStart, end);
+        if (valueEnd < 0) {
+          return false;
+        }
+        boolean escaped = indexOf('\\', valueStart, valueEnd) >= 0;
+        if (isKey("name", keyStart, keyEnd)) {
+          this.nameStart = valueStart;
+          this.nameEnd = valueEnd;
+          this.nameEscaped = escaped;
+        } else if (isKey("email", keyStart, keyEnd)) {
+          this.emailStart = valueStart;
+          this.emailEnd = valueEnd;
+          this.emailEscaped = escaped;
+        }
+        valueEnd++;
+      } else {
+        valueEnd = i;
+        while (valueEnd < end && bytes[valueEnd] != ',' && bytes[valueEnd] != '}'
+            && bytes[valueEnd] != ' ' && bytes[valueEnd] != '\t') {
+          valueEnd++;
+        }
+        if (isKey("score", keyStart, keyEnd)) {
+          this.score = parseScore(i, valueEnd);
+          if (this.score < 0) {
+            return false;
+          }
+        }
+      }
+
+      // separator
+      i = skipSpaces(valueEnd, end);
+      if (i == end) {
+        return false;
+      }
+      if (bytes[i] == '}') {
+        return skipSpaces(i + 1, end) == end && this.nameStart >= 0 && this.emailStart >= 0
+            && this.score >= 0;
+      }
+      if (bytes[i] != ',') {
+        return false;
+      }
+      i = skipSpaces(i + 1, end);
+    }
+    return false;
+  }
+
+  /**
+   * Returns the index of the closing quote of the JSON string starting at the given index
+   *
+   * @param start index of the first byte after the opening quote
+   * @param end   index after the last byte of the row
+   * @return the index of the closing quote, -1 if there is none
+   */
+  private int endOfString(int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (this.line[i] == '\\') {
+        i++; // skip the escaped character
+      } else if (this.line[i] == '"') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Checks whether the given range of the row holds the given ASCII key
+   *
+   * @param key   the key to compare with
+   * @param start index of the first byte of the range
+   * @param end   index after the last byte of the range
+   * @return whether the range holds the key
+   */
+  private boolean isKey(String key, int start, int end) {
+    if (end - start != key.length()) {
+      return false;
+    }
+    for (int i = 0; i < key.length(); i++) {
+      if (this.line[start + i] != key.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parses a score made of 1 to 3 ASCII digits, surrounded by optional spaces.
+   *
+   * @param start index of the first byte of the score
+   * @param end   index after the last byte of the score
+   * @return the score, or -1 if it is not a valid score
+   */
+  private int parseScore(int start, int end) {
+    start = skipSpaces(start, end);
+    while (end > start && (this.line[end - 1] == ' ' || this.line[end - 1] == '\t')) {
+      end--;
+    }
+    if (end == start || end - start > 3) {
+      return -1;
+    }
+
+    int value = 0;
+    for (int i = start; i < end; i++) {
+      int digit = this.line[i] - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value >= Application.MIN_SCORE && value <= Application.MAX_SCORE ? value : -1;
+  }
+
+  /**
+   * Decodes the given range of the row into a String.
+   *
+   * @param start   index of the first byte of the range
+   * @param end     index after the last byte of the range
+   * @param escaped whether the range is a JSON string containing escape sequences
+   * @return the decoded String
+   */
+  private String string(int start, int end, boolean escaped) {
+    String raw = new String(this.line, start, end - start, StandardCharsets.UTF_8);
+    if (!escaped) {
+      return raw;
+    }
+
+    // slow path: unescape the JSON string
+    StringBuilder val = new StringBuilder(raw.length());
+    for (int i = 0; i < raw.length(); i++) {
+      char c = raw.charAt(i);
+      if (c != '\\' || i + 1 == raw.length()) {
+        val.append(c);
+        continue;
+      }
+      char escape = raw.charAt(++i);
+      switch (escape) {
+        case 'b':
+          val.append('\b');
+          break;
+        case 'f':
+          val.append('\f');
+          break;
+        case 'n':
+          val.append('\n');
+          break;
+        case 'r':
+          val.append('\r');
+          break;
+        case 't':
+          val.append('\t');
+          break;
+        case 'u':
+          if (i + 4 < raw.length()) {
+            try {
+              val.append((char) Integer.parseInt(raw.substring(i + 1, i + 5), 16));
+              i += 4;
+              break;
+            } catch (NumberFormatException e) {
+              // not a valid escape, keep it as is
+            }
+          }
+          val.append(escape);
+          break;
+        default:
+          val.append(escape); // \" \\ \/
+      }
+    }
+    return val.toString();
+  }
+
+  /**
+   * Returns the index of the first byte of the range which is not a space or a tab
+   *
+   * @param start index of the first byte of the range
+   * @param end   index after the last byte of the range
+   * @return the index of the first non-space byte, end if there is none
+   */
+  private int skipSpaces(int start, int end) {
+    while (start < end && (this.line[start] == ' ' || this.line[start] == '\t')) {
+      start++;
+    }
+    return start;
+  }
+
+  /**
+   * Returns the index of the first occurrence of the given byte in the range
+   *
+   * @param b     the byte to search
+   * @param start index of the first byte of the range
+   * @param end   index after the last byte of the range
+   * @return the index of the first occurrence, -1 if there is none
+   */
+  private int indexOf(char b, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (this.line[i] == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the index of the last occurrence of the given byte in the range
+   *
+   * @param b     the byte to search
+   * @param start index of the first byte of the range
+   * @param end   index after the last byte of the range
+   * @return the index of the last occurrence, -1 if there is none
+   */
+  private int lastIndexOf(char b, int start, int end) {
+    for (int i = end - 1; i >= start; i--) {
+      if (this.line[i] == b) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Checks whether the given range only holds spaces and tabs
+   *
+   * @param bytes the buffer holding the range
+   * @param start index of the first byte of the range
+   * @param end   index after the last byte of the range
+   * @return whether the range is blank
+   */
+  private static boolean isBlank(byte[] bytes, int start, int end) {
+    for (int i = start; i < end; i++) {
+      if (bytes[i] != ' ' && bytes[i] != '\t') {
+        return false;
+      }
+    }
+    return true;
+  }
+}
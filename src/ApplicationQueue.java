@@ -3,7 +3,11 @@
 // Title: ApplicationQueue.java
 ///////////////////////////////////////////////////////////////////////////////
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
@@ -11,10 +15,23 @@ import java.util.NoSuchElementException;
  * min-heap invariant, so that the Application at the root should have the lowest score, and
  * children always have a higher or equal score as their parent. The root of a non-empty queue is
  * always at index 0 of this array-heap.
+ *
+ * The score of each Application is kept in a parallel int array, so that percolating compares
+ * primitives stored contiguously instead of dereferencing two Applications per comparison.
+ *
+ * The heap is binary by default, but it can be given a higher arity: the children of index i are
+ * then the arity indexes starting at i * arity + 1. A wider heap is shallower, so percolating down
+ * visits fewer levels, each of them scanning contiguous children.
  */
 public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable<Application> {
   private Application[] queue; // array min-heap of applications representing this priority queue
+  private int[] scores; // scores[i] is the score of queue[i]
   private int size; // size of this priority queue
+  private final int arity; // number of children of each node of this heap
+  private boolean shared; // whether the arrays are shared with a copy, and must be copied before
+                          // being modified
+  int modCount; // number of modifications of this queue, checked by its iterators
+  PositionMetrics metrics; // records the depth of each percolation, null if not measured
 
   /**
    * Creates a new empty ApplicationQueue with the given capacity
@@ -24,17 +41,86 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
    *                                  positive integer
    */
   public ApplicationQueue(int capacity) {
+    this(capacity, 2);
+  }
+
+  /**
+   * Creates a new empty ApplicationQueue with the given capacity, whose heap nodes have the given
+   * number of children
+   * 
+   * @param capacity Capacity of this ApplicationQueue
+   * @param arity    number of children of each node of the heap, 2 for a binary heap
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer, or if the arity is lower than 2
+   */
+  public ApplicationQueue(int capacity, int arity) {
 
     // check capacity
     if (capacity <= 0) {
       throw new IllegalArgumentException("capacity is invalid.");
     }
 
+    // check arity
+    if (arity < 2) {
+      throw new IllegalArgumentException("arity is invalid.");
+    }
+
     // create new queue
     queue = new Application[capacity];
+    scores = new int[capacity];
+    this.arity = arity;
     
   }
 
+  /**
+   * Creates a new ApplicationQueue sharing the arrays of the given heap, which each of the two
+   * queues copies before its first modification
+   * 
+   * @param other the ApplicationQueue whose arrays are shared
+   */
+  ApplicationQueue(ApplicationQueue other) {
+    this.queue = other.queue;
+    this.scores = other.scores;
+    this.size = other.size;
+    this.arity = other.arity;
+    this.shared = true;
+    other.shared = true;
+  }
+
+  /**
+   * Creates a new ApplicationQueue with the given capacity, containing the given Applications. The
+   * heap is built bottom-up in O(n) time instead of the O(n log n) time of successive enqueue().
+   * 
+   * @param capacity     Capacity of this ApplicationQueue
+   * @param applications Applications to add to this ApplicationQueue
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   * @throws NullPointerException     if the given array or one of its Applications is null
+   * @throws IllegalStateException    with a descriptive error message if there are more
+   *                                  Applications than the capacity
+   */
+  public ApplicationQueue(int capacity, Application[] applications) {
+    this(capacity);
+    enqueueAll(applications);
+  }
+
+  /**
+   * Creates a new ApplicationQueue with the given capacity, containing the given Applications. The
+   * heap is built bottom-up in O(n) time instead of the O(n log n) time of successive enqueue().
+   * 
+   * @param capacity     Capacity of this ApplicationQueue
+   * @param applications Applications to add to this ApplicationQueue
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   * @throws NullPointerException     if the given collection or one of its Applications is null
+   * @throws IllegalStateException    with a descriptive error message if there are more
+   *                                  Applications than the capacity
+   */
+  public ApplicationQueue(int capacity, Collection<? extends Application> applications) {
+    this(capacity);
+    enqueueAll(applications);
+  }
+
   /**
    * Checks whether this ApplicationQueue is empty
    * 
@@ -85,12 +171,86 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
     
     
     // if allowed, add the application to the queue and percolate to restore the heap condition
+    unshare();
     this.queue[size] = o; // add
+    this.scores[size] = o.getScore();
+    this.modCount++;
     this.size = this.size + 1; // size changed since it is array, we should do manually
     percolateUp(size-1);
     
   }
 
+  /**
+   * Adds all the given Applications to this ApplicationQueue. When they are numerous enough, they
+   * are appended to the array-heap which is then rebuilt bottom-up in O(n) time. Otherwise, each of
+   * them is percolated up as by enqueue(). This queue is not modified if an exception is thrown.
+   * 
+   * @param applications Applications to add to this ApplicationQueue
+   * @throws NullPointerException  if the given array or one of its Applications is null
+   * @throws IllegalStateException with a descriptive error message if there is not enough room
+   *                               for all the given Applications
+   */
+  public void enqueueAll(Application[] applications) {
+
+    // verify the applications and that there is room for all of them
+    for (Application a : applications) {
+      if (a == null) {
+        throw new NullPointerException("the given Application is null");
+      }
+    }
+    if (applications.length > this.queue.length - this.size) {
+      throw new IllegalStateException("queue is full");
+    }
+
+    unshare();
+    int oldSize = this.size;
+    System.arraycopy(applications, 0, this.queue, oldSize, applications.length);
+    for (int i = 0; i < applications.length; i++) {
+      this.scores[oldSize + i] = applications[i].getScore();
+      placed(applications[i], oldSize + i);
+    }
+    this.size = oldSize + applications.length;
+    this.modCount++;
+    restoreHeap(oldSize);
+  }
+
+  /**
+   * Adds all the given Applications to this ApplicationQueue. When they are numerous enough, they
+   * are appended to the array-heap which is then rebuilt bottom-up in O(n) time. Otherwise, each of
+   * them is percolated up as by enqueue(). This queue is not modified if an exception is thrown.
+   * 
+   * @param applications Applications to add to this ApplicationQueue
+   * @throws NullPointerException  if the given collection or one of its Applications is null
+   * @throws IllegalStateException with a descriptive error message if there is not enough room
+   *                               for all the given Applications
+   */
+  public void enqueueAll(Collection<? extends Application> applications) {
+    enqueueAll(applications.toArray(new Application[0]));
+  }
+
+  /**
+   * Restores the min-heap invariant after Applications were appended to the array-heap, starting
+   * at the given index. Rebuilds the whole heap bottom-up when it costs less than percolating each
+   * appended Application up.
+   * 
+   * @param first index of the first appended Application
+   */
+  private void restoreHeap(int first) {
+    int appended = this.size - first;
+    int height = 32 - Integer.numberOfLeadingZeros(this.size);
+
+    if ((long) appended * height > this.size) {
+      // percolate down every parent, from the last one up to the root
+      for (int i = lastParent(); i >= 0; i--) {
+        percolateDown(i);
+      }
+    } else {
+      for (int i = first; i < this.size; i++) {
+        percolateUp(i);
+      }
+    }
+  }
+
   /**
    * Removes and returns the Application at the root of this ApplicationQueue, i.e. the Application
    * with the lowest score.
@@ -109,9 +269,12 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
 
     // save the lowest-scoring application
     Application temp = this.peek();
+    unshare();
+    this.modCount++;
 
     // replace the root of the heap and percolate to restore the heap condition
     this.queue[0] = this.queue[size - 1];
+    this.scores[0] = this.scores[size - 1];
     this.queue[size - 1] = null;
     size = size - 1; // size changed
 
@@ -125,100 +288,139 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
   }
 
   /**
-   * An implementation of percolateDown() method. Restores the min-heap invariant of a given subtree
-   * by percolating its root down the tree. If the element at the given index does not violate the
-   * min-heap invariant (it is due before its children), then this method does not modify the heap.
-   * Otherwise, if there is a heap violation, then swap the element with the correct child and
-   * continue percolating the element down the heap.
-   * 
-   * This method may be implemented recursively OR iteratively.
+   * Replaces the Application at the root of this ApplicationQueue with the given Application and
+   * uses the percolateDown() method once to maintain the min-heap invariant, instead of the
+   * percolateDown() and percolateUp() of a dequeue() followed by an enqueue().
    * 
-   * @param i index of the element in the heap to percolate downwards
-   * @throws IndexOutOfBoundsException if index is out of bounds - do not catch the exception
+   * @param o Application to add to this ApplicationQueue
+   * @return the removed Application, which had the smallest score
+   * @throws NullPointerException   if the given Application is null
+   * @throws NoSuchElementException with a descriptive error message if this ApplicationQueue is
+   *                                empty
    */
-  private void percolateDown(int i) {
-
-    // check if the index is valid
-    if (i > this.size - 1 || i < 0) {
-
-      throw new IndexOutOfBoundsException("index is invalid");
+  @Override
+  public Application replaceTop(Application o) {
 
+    // verify the application
+    if (o == null) {
+      throw new NullPointerException("the given Application is null");
     }
 
-    // Base case 1: there is no child
-    if ((i * 2 + 1) > this.size - 1) {
-
-      // do not modify
-
+    // verify that the queue is not empty
+    if (this.isEmpty()) {
+      throw new NoSuchElementException("queue is empty");
     }
 
-    // Base case 2: there is only left child
-    if ((i * 2 + 1) <= this.size - 1 && (i * 2 + 2) > this.size - 1) {
-
-      // if the left child is smaller than the parent
-      if (this.queue[(i * 2 + 1)].getScore() < queue[i].getScore()) {
-
-        // swap
-        Application temp = queue[(i * 2 + 1)]; // store
+    // overwrite the root and percolate to restore the heap condition
+    unshare();
+    Application temp = this.queue[0];
+    this.queue[0] = o;
+    this.scores[0] = o.getScore();
+    this.modCount++;
+    percolateDown(0);
 
-        queue[(i * 2 + 1)] = queue[i]; // swap
-        queue[i] = temp;
+    return temp;
+  }
 
-        // no more child and do not have to swap anymore
-      }
+  /**
+   * Adds the given Application to this ApplicationQueue if it is not full. Otherwise, replaces the
+   * lowest-scored Application with the given one if the given one has a higher score.
+   * 
+   * @param o Application to offer to this ApplicationQueue
+   * @return {@code null} if the Application was added without eviction, the evicted Application if
+   *         the given one replaced it, or the given Application if it was not added
+   * @throws NullPointerException if the given Application is null
+   */
+  @Override
+  public Application offer(Application o) {
 
+    // verify the application
+    if (o == null) {
+      throw new NullPointerException("the given Application is null");
     }
 
-    // Base case 3: there is two children
-    Application lowestApplication;
-
-    if ((i * 2 + 1) <= this.size - 1 && (i * 2 + 2) <= this.size - 1) {
-
-      // get the application which has the lowest score among two children
-      if (queue[(i * 2 + 1)].getScore() >= queue[i * 2 + 2].getScore()) {
-
-        lowestApplication = queue[(i * 2 + 2)]; // right is lower
-
-        // check if this child is lower than parent
-        if (queue[(i * 2 + 2)].getScore() < queue[i].getScore()) {
-
-          queue[(i * 2 + 2)] = queue[i]; // swap
-          queue[i] = lowestApplication;
+    // there is room
+    if (this.size < this.queue.length) {
+      enqueue(o);
+      return null;
+    }
 
-          // percolate process again
-          percolateDown(i * 2 + 2);
+    // full: evict the root only if the given application has a higher score
+    if (this.scores[0] < o.getScore()) {
+      return replaceTop(o);
+    }
+    return o;
+  }
 
-        }
+  /**
+   * An implementation of percolateDown() method. Restores the min-heap invariant of a given subtree
+   * by percolating its root down the tree. If the element at the given index does not violate the
+   * min-heap invariant (it is due before its children), then this method does not modify the heap.
+   * Otherwise, if there is a heap violation, then the element moves to the place of its
+   * lowest-scored child and continues percolating down the heap.
+   * 
+   * This method is implemented iteratively: instead of swapping at every level, the lowest-scored
+   * children are shifted up into a hole, and the element is written once where the hole stops.
+   * 
+   * @param i index of the element in the heap to percolate downwards
+   * @throws IndexOutOfBoundsException if index is out of bounds - do not catch the exception
+   */
+  private void percolateDown(int i) {
 
-      } else {
+    // check if the index is valid
+    if (i > this.size - 1 || i < 0) {
 
-        lowestApplication = queue[(i * 2 + 1)]; // left is lower
+      throw new IndexOutOfBoundsException("index is invalid");
 
-        // check if this child is lower than parent
-        if (queue[(i * 2 + 1)].getScore() < queue[i].getScore()) {
-          queue[(i * 2 + 1)] = queue[i]; // swap
-          queue[i] = lowestApplication;
+    }
 
-          // percolate process again
-          percolateDown(i * 2 + 1);
+    Application moving = this.queue[i];
+    int score = this.scores[i];
+    int lastParent = lastParent();
+    int levels = 0;
+
+    // while the hole has children
+    while (i <= lastParent) {
+
+      // get the lowest-scored child
+      int first = i * this.arity + 1;
+      int end = Math.min(first + this.arity, this.size);
+      int lowest = first;
+      for (int child = first + 1; child < end; child++) {
+        if (this.scores[child] < this.scores[lowest]) {
+          lowest = child;
         }
+      }
 
+      // stop if this child is not lower than the percolated element
+      if (this.scores[lowest] >= score) {
+        break;
       }
 
+      // move the child up into the hole
+      this.queue[i] = this.queue[lowest];
+      this.scores[i] = this.scores[lowest];
+      placed(this.queue[i], i);
+      i = lowest;
+      levels++;
     }
 
+    this.queue[i] = moving;
+    this.scores[i] = score;
+    placed(moving, i);
+    if (this.metrics != null) {
+      this.metrics.recordSift(levels);
+    }
   }
 
   /**
    * An implementation of percolateUp() method. Restores the min-heap invariant of the tree by
    * percolating a leaf up the tree. If the element at the given index does not violate the min-heap
    * invariant (it occurs after its parent), then this method does not modify the heap. Otherwise,
-   * if there is a heap violation, swap the element with its parent and continue percolating the
-   * element up the heap.
-   * 
-   * This method may be implemented recursively OR iteratively.
+   * if there is a heap violation, the parent moves down to the place of the element, which
+   * continues percolating up the heap.
    * 
-   * Feel free to add private helper methods if you need them.
+   * This method is implemented iteratively, shifting parents down into a hole.
    * 
    * @param i index of the element in the heap to percolate upwards
    * @throws IndexOutOfBoundsException if index is out of bounds - do not catch the exception
@@ -232,27 +434,76 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
 
     }
 
-    // Base case1: child index is now index of root
-    if (i == 0) {
+    Application moving = this.queue[i];
+    int score = this.scores[i];
+    int levels = 0;
 
-      // stop, do not do anything
+    // while the hole is not the root and the element is lower than the parent of the hole
+    while (i != 0) {
+      int parent = (i - 1) / this.arity;
+      if (this.scores[parent] <= score) {
+        break;
+      }
 
+      // move the parent down into the hole
+      this.queue[i] = this.queue[parent];
+      this.scores[i] = this.scores[parent];
+      placed(this.queue[i], i);
+      i = parent;
+      levels++;
     }
 
-    // index is not in the root yet
-    if (i != 0) {
+    this.queue[i] = moving;
+    this.scores[i] = score;
+    placed(moving, i);
+    if (this.metrics != null) {
+      this.metrics.recordSift(levels);
+    }
+  }
 
-      // compare with parent node
-      if (this.queue[i].compareTo(this.queue[(i - 1) / 2]) < 0) { // child is lower
+  /**
+   * Restores the min-heap invariant around the given index after the Application stored there was
+   * changed, by percolating it up if it is lower than its parent, or else down.
+   * 
+   * @param i index of the changed element in the heap
+   */
+  private void percolate(int i) {
+    if (i != 0 && this.scores[(i - 1) / this.arity] > this.scores[i]) {
+      percolateUp(i);
+    } else {
+      percolateDown(i);
+    }
+  }
 
-        Application temp = this.queue[(i - 1) / 2]; // save and swap
-        this.queue[(i - 1) / 2] = this.queue[i];
-        this.queue[i] = temp;
-        percolateUp((i - 1) / 2);
-      }
+  /**
+   * Called whenever an Application is stored at an index of this array-heap, so that subclasses
+   * can keep track of where each Application is. Does nothing by default.
+   * 
+   * @param application the stored Application
+   * @param i           the index where it is stored
+   */
+  void placed(Application application, int i) {
+  }
 
+  /**
+   * Copies the arrays of this heap if they are shared with a copy, so that they can be modified
+   * without the copy seeing it. Must be called before any modification of the arrays.
+   */
+  private void unshare() {
+    if (this.shared) {
+      this.queue = this.queue.clone();
+      this.scores = this.scores.clone();
+      this.shared = false;
     }
+  }
 
+  /**
+   * Returns the index of the last element of this heap having at least one child
+   * 
+   * @return the index of the last parent of this heap, -1 if no element has a child
+   */
+  private int lastParent() {
+    return this.size < 2 ? -1 : (this.size - 2) / this.arity;
   }
 
   /**
@@ -274,30 +525,235 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
 
   }
 
+  /**
+   * Appends the given Application to this array-heap without percolating it, as when reloading
+   * Applications saved in array-heap order. Checks in constant time that it is not lower than its
+   * parent, so that the min-heap invariant holds.
+   * 
+   * @param o Application to append to this ApplicationQueue
+   * @throws NullPointerException  if the given Application is null
+   * @throws IllegalStateException with a descriptive error message if this ApplicationQueue is
+   *                               full, or if the Application is lower than its parent
+   */
+  void appendHeapOrdered(Application o) {
+
+    // verify that the queue is not full
+    if (this.size == this.queue.length) {
+      throw new IllegalStateException("queue is full");
+    }
+
+    // verify the heap order
+    int score = o.getScore();
+    if (this.size != 0 && this.scores[(this.size - 1) / this.arity] > score) {
+      throw new IllegalStateException("application is lower than its parent");
+    }
+
+    unshare();
+    this.queue[this.size] = o;
+    this.scores[this.size] = score;
+    placed(o, this.size);
+    this.modCount++;
+    this.size = this.size + 1;
+  }
+
+  /**
+   * Removes and returns the Application stored at the given index of this array-heap. The last
+   * Application of the heap fills the hole and is percolated from there, in O(log n) time.
+   * 
+   * @param i index of an element of this heap, in the 0 .. size()-1 range
+   * @return the removed Application
+   * @throws IndexOutOfBoundsException if index is out of bounds
+   */
+  Application removeAt(int i) {
+
+    // check if the index is valid
+    if (i > this.size - 1 || i < 0) {
+      throw new IndexOutOfBoundsException("index is invalid");
+    }
+
+    unshare();
+    Application removed = this.queue[i];
+    this.modCount++;
+    this.size = this.size - 1;
+
+    // move the last element into the hole, unless the hole is the last element
+    if (i != this.size) {
+      this.queue[i] = this.queue[this.size];
+      this.scores[i] = this.scores[this.size];
+      this.queue[this.size] = null;
+      percolate(i);
+    } else {
+      this.queue[i] = null;
+    }
+
+    return removed;
+  }
+
+  /**
+   * Replaces the Application stored at the given index of this array-heap with the given one, and
+   * percolates it to restore the min-heap invariant in O(log n) time.
+   * 
+   * @param i index of an element of this heap, in the 0 .. size()-1 range
+   * @param o the Application to store instead
+   * @return the replaced Application
+   * @throws IndexOutOfBoundsException if index is out of bounds
+   */
+  Application replaceAt(int i, Application o) {
+
+    // check if the index is valid
+    if (i > this.size - 1 || i < 0) {
+      throw new IndexOutOfBoundsException("index is invalid");
+    }
+
+    unshare();
+    Application replaced = this.queue[i];
+    this.queue[i] = o;
+    this.scores[i] = o.getScore();
+    this.modCount++;
+    percolate(i);
+
+    return replaced;
+  }
+
+  /**
+   * Returns the number of children of each node of this heap
+   * 
+   * @return the arity of this heap
+   */
+  public int getArity() {
+    return this.arity;
+  }
+
+  /**
+   * Returns the capacity of this ApplicationQueue
+   * 
+   * @return the maximum number of Applications this queue can hold
+   */
+  int capacity() {
+    return this.queue.length;
+  }
+
+  /**
+   * Returns the Application stored at the given index of this array-heap
+   * 
+   * @param i index of an element of this heap, in the 0 .. size()-1 range
+   * @return the Application at index i
+   */
+  Application get(int i) {
+    return this.queue[i];
+  }
+
+  /**
+   * Returns the score of the Application stored at the given index of this array-heap
+   * 
+   * @param i index of an element of this heap, in the 0 .. size()-1 range
+   * @return the score of the Application at index i
+   */
+  int getScore(int i) {
+    return this.scores[i];
+  }
+
+  /**
+   * Returns the Applications of this ApplicationQueue in array-heap order, without copying them
+   * 
+   * @return an unmodifiable list of the Applications of this ApplicationQueue, in array-heap order
+   */
+  @Override
+  public List<Application> storedOrder() {
+    return Collections.unmodifiableList(Arrays.asList(this.queue).subList(0, this.size));
+  }
+
+  /**
+   * Appends the given Application to this array-heap without percolating it, as appendHeapOrdered()
+   * does
+   * 
+   * @param o Application to append to this ApplicationQueue
+   * @throws NullPointerException  if the given Application is null
+   * @throws IllegalStateException with a descriptive error message if this ApplicationQueue is
+   *                               full, or if the Application is lower than its parent
+   */
+  @Override
+  public void appendStored(Application o) {
+    appendHeapOrdered(o);
+  }
+
+  /**
+   * Returns the Applications of this ApplicationQueue in increasing order of the scores, iterated
+   * in constant memory by a ScoreBucketIterator, as when streaming the whole queue out
+   * 
+   * @return an Iterable over the Applications of this ApplicationQueue, from the lowest-scored to
+   *         the highest-scored
+   */
+  @Override
+  public Iterable<Application> exportOrder() {
+    return () -> new ScoreBucketIterator(this);
+  }
+
+  /**
+   * Returns a new array containing the Applications of this ApplicationQueue, in array-heap order
+   * 
+   * @return a new array of length size() containing the Applications of this ApplicationQueue
+   */
+  Application[] toArray() {
+    return Arrays.copyOf(this.queue, this.size);
+  }
+
+  /**
+   * Returns a new array containing the Applications of this ApplicationQueue in increasing order of
+   * the scores. Since scores are in the 0 .. 100 range, the array-heap is counting-sorted by score
+   * in O(n) time, reading the parallel scores instead of dequeuing every Application.
+   * 
+   * @return a new array of length size() containing the Applications of this ApplicationQueue,
+   *         from the lowest-scored to the highest-scored
+   */
+  public Application[] sortedArray() {
+
+    // starts[s] is the index of the first application scoring s in the sorted array
+    int[] starts = new int[Application.MAX_SCORE - Application.MIN_SCORE + 2];
+    for (int i = 0; i < this.size; i++) {
+      starts[this.scores[i] - Application.MIN_SCORE + 1]++;
+    }
+    for (int s = 1; s < starts.length; s++) {
+      starts[s] += starts[s - 1];
+    }
+
+    Application[] sorted = new Application[this.size];
+    for (int i = 0; i < this.size; i++) {
+      sorted[starts[this.scores[i] - Application.MIN_SCORE]++] = this.queue[i];
+    }
+    return sorted;
+  }
+
+  /**
+   * Returns an unmodifiable list of the Applications of this ApplicationQueue in increasing order
+   * of the scores, sorted in O(n) time
+   * 
+   * @see #sortedArray()
+   * @return a new unmodifiable list of the Applications of this ApplicationQueue, from the
+   *         lowest-scored to the highest-scored
+   */
+  @Override
+  public List<Application> sortedList() {
+    return Collections.unmodifiableList(Arrays.asList(sortedArray()));
+  }
+
   /**
    * Returns a deep copy of this ApplicationQueue containing all of its elements in the same order.
    * This method does not return the deepest copy, meaning that you do not need to duplicate
    * applications. Only the instance of the heap (including the array and its size) will be
    * duplicated.
    * 
+   * The copy is made in constant time: both queues share the arrays of the heap, and each of them
+   * copies the arrays before its first modification, so that it never sees the modifications of
+   * the other.
+   * 
    * @return a deep copy of this ApplicationQueue. The returned new application queue has the same
    *         length and size as this queue.
    */
   public ApplicationQueue deepCopy() {
 
-    ApplicationQueue newApplication = new ApplicationQueue(this.queue.length);
-
-   for (int i = 0; i < this.size; i++) {
-     newApplication.queue[i] = this.queue[i]; // copy all the elements
-    }
-    
-    //for (Application a : queue) {
-    //   newApplication.enqueue(a);
-    //}
-
-    newApplication.size = this.size; // size should be updated
-
-    return newApplication;
+    // share all the elements until one of the queues changes
+    return new ApplicationQueue(this);
   }
 
   /**
@@ -324,7 +780,8 @@ public class ApplicationQueue implements PriorityQueueADT<Application>, Iterable
 
   /**
    * Returns an Iterator for this ApplicationQueue which proceeds from the lowest-scored to the
-   * highest-scored Application in the queue.
+   * highest-scored Application in the queue. The iterator does not copy this queue, which must not
+   * be modified during the iteration.
    * 
    * This implementation is provided.
    * 
@@ -0,0 +1,98 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: ApplicationValidator.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.util.Arrays;
+
+/**
+ * Validates Applications in batches without throwing exceptions. Every row is checked with
+ * Application.validate(), valid rows are turned into Applications, and rejected rows are counted
+ * by reason code (Application.INVALID_NAME, INVALID_EMAIL or INVALID_SCORE).
+ */
+public class ApplicationValidator {
+  private final int[] counts; // counts[status] is the number of rows validated with this status
+
+  /**
+   * Creates a new ApplicationValidator with all its counts at zero
+   */
+  public ApplicationValidator() {
+    this.counts = new int[Application.INVALID_SCORE + 1];
+  }
+
+  /**
+   * Validates one row and creates its Application if it is valid
+   *
+   * @param name  name of an applicant
+   * @param email email of an applicant
+   * @param score estimated score of an applicant
+   * @return a new Application, or null if the row is rejected
+   */
+  public Application accept(String name, String email, int score) {
+    // a single pass gives both the outcome and the reason
+    return Application.tryCreate(name, email, score, this.counts);
+  }
+
+  /**
+   * Validates a batch of rows, given as parallel arrays, and creates the Applications of the valid
+   * ones.
+   *
+   * @param names  names of the applicants
+   * @param emails emails of the applicants
+   * @param scores estimated scores of the applicants
+   * @return a new array containing the Applications of the valid rows, in order
+   * @throws IllegalArgumentException if the arrays do not have the same length
+   */
+  public Application[] acceptAll(String[] names, String[] emails, int[] scores) {
+    if (names.length != emails.length || names.length != scores.length) {
+      throw new IllegalArgumentException("the arrays do not have the same length");
+    }
+
+    Application[] accepted = new Application[names.length];
+    int count = 0;
+    for (int i = 0; i < names.length; i++) {
+      Application application = accept(names[i], emails[i], scores[i]);
+      if (application != null) {
+        accepted[count++] = application;
+      }
+    }
+
+    return count == accepted.length ? accepted : Arrays.copyOf(accepted, count);
+  }
+
+  /**
+   * Returns the number of valid rows
+   *
+   * @return the number of rows turned into Applications
+   */
+  public int getAccepted() {
+    return this.counts[Application.VALID];
+  }
+
+  /**
+   * Returns the number of rows rejected for the given reason
+   *
+   * @param reason Application.INVALID_NAME, INVALID_EMAIL or INVALID_SCORE
+   * @return the number of rows rejected for this reason
+   * @throws IllegalArgumentException if reason is not one of these status codes
+   */
+  public int getRejected(int reason) {
+    if (reason <= Application.VALID || reason >= this.counts.length) {
+      throw new IllegalArgumentException("reason is not a rejection status code");
+    }
+    return this.counts[reason];
+  }
+
+  /**
+   * Returns the number of rejected rows, whatever the reason
+   *
+   * @return the number of rejected rows
+   */
+  public int getRejected() {
+    int rejected = 0;
+    for (int reason = Application.VALID + 1; reason < this.counts.length; reason++) {
+      rejected += this.counts[reason];
+    }
+    return rejected;
+  }
+}
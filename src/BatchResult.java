@@ -0,0 +1,68 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: BatchResult.java
+///////////////////////////////////////////////////////////////////////////////
+
+/**
+ * This class models the outcome of adding a batch of Applications to an open position: how many
+ * of them were admitted or rejected, and how many previously admitted Applications were evicted to
+ * make room for them.
+ */
+public class BatchResult {
+  private final int admitted; // number of Applications of the batch which were admitted
+  private final int rejected; // number of Applications of the batch which were rejected
+  private final int evicted;  // number of Applications evicted while adding the batch
+
+  /**
+   * Creates a new BatchResult with the given counts
+   *
+   * @param admitted number of Applications of the batch which were admitted
+   * @param rejected number of Applications of the batch which were rejected
+   * @param evicted  number of Applications evicted while adding the batch
+   */
+  public BatchResult(int admitted, int rejected, int evicted) {
+    this.admitted = admitted;
+    this.rejected = rejected;
+    this.evicted = evicted;
+  }
+
+  /**
+   * Returns the number of Applications of the batch which were admitted, i.e. for which add()
+   * would have returned true
+   *
+   * @return the number of Applications of the batch which were admitted
+   */
+  public int getAdmitted() {
+    return this.admitted;
+  }
+
+  /**
+   * Returns the number of Applications of the batch which were rejected, i.e. for which add()
+   * would have returned false
+   *
+   * @return the number of Applications of the batch which were rejected
+   */
+  public int getRejected() {
+    return this.rejected;
+  }
+
+  /**
+   * Returns the number of Applications evicted while adding the batch, including Applications of
+   * the batch itself which were admitted then evicted by a later one
+   *
+   * @return the number of Applications evicted while adding the batch
+   */
+  public int getEvicted() {
+    return this.evicted;
+  }
+
+  /**
+   * Returns a String representing this BatchResult containing its three counts.
+   *
+   * @return a String representing this BatchResult
+   */
+  @Override
+  public String toString() {
+    return "admitted:" + admitted + ":rejected:" + rejected + ":evicted:" + evicted;
+  }
+}
@@ -0,0 +1,172 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: BenchmarkWorkloads.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.LongSupplier;
+
+/**
+ * Workloads measured by the JMH benchmarks of the jmh directory, built with the jmh Maven profile.
+ * JMH refuses benchmark classes in the default package, and classes of a named package cannot
+ * refer to the default package, so the benchmarks create these workloads by reflection once per
+ * trial, then call them through the LongSupplier interface, whose single implementation per call
+ * site is inlined by the JIT.
+ *
+ * Every workload runs one operation per call, on a queue or position already in its steady state,
+ * and returns a value depending on the operation so that the benchmark can consume it.
+ */
+public class BenchmarkWorkloads {
+  private static final int DISTINCT_APPLICANTS = 1024; // number of distinct names and emails
+  private static final int SHORTLIST_CAPACITY = 1000; // capacity of the shortlisted positions
+
+  /**
+   * Creates the named workload
+   *
+   * @param operation    the name of the measured operation, such as "replaceTop"
+   * @param size         the number of Applications of the queue or position, or to shortlist
+   * @param arity        the arity of the ApplicationQueue, for the ApplicationQueue operations
+   * @param distribution the distribution of the scores: "uniform", "skewed" or "adversarial"
+   * @return the workload running one operation per call
+   * @throws IllegalArgumentException if the operation or the distribution is unknown
+   */
+  public static LongSupplier create(String operation, int size, int arity,
+      String distribution) {
+    Feed feed = new Feed(newApplications(2 * size,
+        Distribution.valueOf(distribution.toUpperCase()), new Random(size)));
+
+    // shortlists of size Applications, which need neither the queue nor the position below
+    Application[] input = Arrays.copyOf(feed.applications, size);
+    switch (operation) {
+      case "parallelShortlist":
+        return () -> ParallelShortlister.shortlist("Benchmark", SHORTLIST_CAPACITY, input)
+            .getApplicationCount();
+      case "sequentialShortlist":
+        return () -> {
+          OpenPosition shortlist = new OpenPosition("Benchmark", SHORTLIST_CAPACITY);
+          for (Application a : input) {
+            shortlist.add(a);
+          }
+          return shortlist.getApplicationCount();
+        };
+    }
+
+    ApplicationQueue queue = new ApplicationQueue(size, arity);
+    queue.enqueueAll(Arrays.copyOf(feed.applications, size));
+    OpenPosition position = OpenPosition.of("Benchmark", size, feed.applications);
+
+    switch (operation) {
+      case "enqueueDequeue": // one free slot, filled then freed by each call
+        queue.dequeue();
+        return () -> {
+          queue.enqueue(feed.next());
+          return queue.dequeue().getScore();
+        };
+      case "replaceTop":
+        return () -> queue.replaceTop(feed.next()).getScore();
+      case "peek":
+        return () -> queue.peek().getScore();
+      case "copyOnWrite": // the copy of the arrays paid by the first change after a snapshot
+        return () -> queue.deepCopy().replaceTop(feed.next()).getScore();
+      case "traversal":
+        return () -> {
+          long sum = 0;
+          for (Application a : queue) {
+            sum += a.getScore();
+          }
+          return sum;
+        };
+      case "sortedArray":
+        return () -> queue.sortedArray().length;
+      case "add":
+        return () -> position.add(feed.next()) ? 1 : 0;
+      case "getTotalScore":
+        return position::getTotalScore;
+      case "export":
+        return () -> {
+          try {
+            position.exportApplications(Writer.nullWriter());
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          return position.getApplicationCount();
+        };
+      default:
+        throw new IllegalArgumentException("unknown operation " + operation);
+    }
+  }
+
+  /**
+   * Cycles through the Applications offered to a queue or position
+   */
+  private static class Feed {
+    private final Application[] applications; // the Applications to offer, in order
+    private int next; // index of the next Application to offer
+
+    private Feed(Application[] applications) {
+      this.applications = applications;
+    }
+
+    /**
+     * Returns the next Application to offer, starting over after the last one
+     *
+     * @return the next Application to offer
+     */
+    private Application next() {
+      Application application = this.applications[this.next];
+      this.next = this.next + 1 == this.applications.length ? 0 : this.next + 1;
+      return application;
+    }
+  }
+
+  /**
+   * Distributions of the scores of the generated Applications
+   */
+  private enum Distribution {
+    UNIFORM, // every score is equally likely
+    SKEWED, // most scores are low, as in late-stage funnels
+    ADVERSARIAL // increasing scores, so that every add() to a full position evicts
+  }
+
+  /**
+   * Creates the given number of Applications whose scores follow the given distribution. Names
+   * and emails are shared between Applications so that large sizes fit in memory.
+   *
+   * @param count        the number of Applications to create
+   * @param distribution the distribution of the scores
+   * @param random       the source of the scores
+   * @return a new array of count Applications
+   */
+  private static Application[] newApplications(int count, Distribution distribution,
+      Random random) {
+    String[] names = new String[DISTINCT_APPLICANTS];
+    String[] emails = new String[DISTINCT_APPLICANTS];
+    for (int i = 0; i < DISTINCT_APPLICANTS; i++) {
+      names[i] = "Applicant" + i;
+      emails[i] = "applicant" + i + "@wisc.edu";
+    }
+
+    Application[] applications = new Application[count];
+    for (int i = 0; i < count; i++) {
+      int score;
+      switch (distribution) {
+        case SKEWED:
+          double r = random.nextDouble();
+          score = (int) (r * r * r * (Application.MAX_SCORE + 1));
+          break;
+        case ADVERSARIAL:
+          score = (int) ((long) i * (Application.MAX_SCORE + 1) / count);
+          break;
+        default:
+          score = random.nextInt(Application.MAX_SCORE + 1);
+      }
+      applications[i] = new Application(names[i % DISTINCT_APPLICANTS],
+          emails[i % DISTINCT_APPLICANTS], score);
+    }
+    return applications;
+  }
+}
@@ -0,0 +1,326 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: BucketApplicationQueue.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Bucketed implementation of a priority queue containing Applications. Since an Application score
+ * is always in the Application.MIN_SCORE .. Application.MAX_SCORE range, this queue keeps one
+ * bucket per possible score and a cursor on the lowest non-empty bucket, so that enqueue(),
+ * dequeue() and peek() run in constant time instead of percolating through a heap. Applications
+ * sharing the same score are dequeued in no particular order.
+ */
+public class BucketApplicationQueue implements PriorityQueueADT<Application> {
+  private static final int BUCKET_COUNT = Application.MAX_SCORE - Application.MIN_SCORE + 1;
+  private static final int INITIAL_BUCKET_LENGTH = 4; // length of a bucket when first used
+
+  private final Application[][] buckets; // buckets[s] stores the applications having score s
+  private final int[] counts; // counts[s] is the number of applications stored in buckets[s]
+  private final int capacity; // capacity of this priority queue
+  private int size; // size of this priority queue
+  private int minBucket; // index of the lowest non-empty bucket, BUCKET_COUNT if empty
+
+  /**
+   * Creates a new empty BucketApplicationQueue with the given capacity
+   *
+   * @param capacity Capacity of this BucketApplicationQueue
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   */
+  public BucketApplicationQueue(int capacity) {
+
+    // check capacity
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity is invalid.");
+    }
+
+    this.buckets = new Application[BUCKET_COUNT][]; // buckets are allocated when first used
+    this.counts = new int[BUCKET_COUNT];
+    this.capacity = capacity;
+    this.minBucket = BUCKET_COUNT;
+  }
+
+  /**
+   * Checks whether this BucketApplicationQueue is empty
+   *
+   * @return {@code true} if this BucketApplicationQueue is empty
+   */
+  @Override
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Returns the size of this BucketApplicationQueue
+   *
+   * @return the size of this BucketApplicationQueue
+   */
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Adds the given Application to the bucket of its score, growing that bucket if needed.
+   *
+   * @param o Application to add to this BucketApplicationQueue
+   * @throws NullPointerException  if the given Application is null
+   * @throws IllegalStateException with a descriptive error message if this queue is full
+   */
+  @Override
+  public void enqueue(Application o) {
+
+    // verify the application
+    if (o == null) {
+      throw new NullPointerException("the given Application is null");
+    }
+
+    // verify that the queue is not full
+    if (this.size == this.capacity) {
+      throw new IllegalStateException("queue is full");
+    }
+
+    int bucket = o.getScore() - Application.MIN_SCORE;
+    Application[] applications = this.buckets[bucket];
+
+    // allocate or grow the bucket, never beyond the capacity of this queue
+    if (applications == null) {
+      applications = new Application[Math.min(INITIAL_BUCKET_LENGTH, this.capacity)];
+      this.buckets[bucket] = applications;
+    } else if (this.counts[bucket] == applications.length) {
+      applications = Arrays.copyOf(applications,
+          (int) Math.min((long) applications.length * 2, this.capacity));
+      this.buckets[bucket] = applications;
+    }
+
+    applications[this.counts[bucket]] = o;
+    this.counts[bucket]++;
+    this.size++;
+
+    // move the cursor if the new application is the lowest-scored one
+    if (bucket < this.minBucket) {
+      this.minBucket = bucket;
+    }
+  }
+
+  /**
+   * Removes and returns an Application of the lowest non-empty bucket, i.e. an Application with the
+   * lowest score.
+   *
+   * @return an Application in this BucketApplicationQueue with the smallest score
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application dequeue() {
+
+    // verify that the queue is not empty
+    if (this.isEmpty()) {
+      throw new NoSuchElementException("queue is empty");
+    }
+
+    int bucket = this.minBucket;
+    int last = --this.counts[bucket];
+    Application[] applications = this.buckets[bucket];
+    Application lowest = applications[last];
+    applications[last] = null;
+    this.size--;
+
+    // release or halve the bucket once it is empty or a quarter full, so that churn across scores
+    // never keeps every bucket at its largest length
+    if (applications.length > INITIAL_BUCKET_LENGTH) {
+      if (last == 0) {
+        this.buckets[bucket] = null;
+      } else if (last <= applications.length / 4) {
+        this.buckets[bucket] = Arrays.copyOf(applications, applications.length / 2);
+      }
+    }
+
+    // move the cursor to the next non-empty bucket (at most BUCKET_COUNT steps)
+    while (this.minBucket < BUCKET_COUNT && this.counts[this.minBucket] == 0) {
+      this.minBucket++;
+    }
+
+    return lowest;
+  }
+
+  /**
+   * Returns the number of slots allocated for all the buckets, which stays within a constant
+   * factor of the size of this queue plus the initial length of each bucket
+   *
+   * @return the total length of the buckets
+   */
+  int allocatedSlots() {
+    int slots = 0;
+    for (Application[] applications : this.buckets) {
+      slots += applications == null ? 0 : applications.length;
+    }
+    return slots;
+  }
+
+  /**
+   * Replaces an Application of the lowest non-empty bucket with the given Application.
+   *
+   * @param o Application to add to this BucketApplicationQueue
+   * @return the removed Application, which had the smallest score
+   * @throws NullPointerException   if the given Application is null
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application replaceTop(Application o) {
+
+    // verify the application
+    if (o == null) {
+      throw new NullPointerException("the given Application is null");
+    }
+
+    // both operations run in constant time and dequeue() makes room for enqueue()
+    Application lowest = dequeue();
+    enqueue(o);
+    return lowest;
+  }
+
+  /**
+   * Adds the given Application to this BucketApplicationQueue if it is not full. Otherwise,
+   * replaces a lowest-scored Application with the given one if the given one has a higher score.
+   *
+   * @param o Application to offer to this BucketApplicationQueue
+   * @return {@code null} if the Application was added without eviction, the evicted Application if
+   *         the given one replaced it, or the given Application if it was not added
+   * @throws NullPointerException if the given Application is null
+   */
+  @Override
+  public Application offer(Application o) {
+
+    // verify the application
+    if (o == null) {
+      throw new NullPointerException("the given Application is null");
+    }
+
+    // there is room
+    if (this.size < this.capacity) {
+      enqueue(o);
+      return null;
+    }
+
+    // full: evict a lowest-scored application only if the given one has a higher score
+    if (this.minBucket + Application.MIN_SCORE < o.getScore()) {
+      return replaceTop(o);
+    }
+    return o;
+  }
+
+  /**
+   * Returns an Application of the lowest non-empty bucket, i.e. an Application with the lowest
+   * score.
+   *
+   * @return an Application in this BucketApplicationQueue with the smallest score
+   * @throws NoSuchElementException if this BucketApplicationQueue is empty
+   */
+  @Override
+  public Application peek() {
+    // verify that the queue is not empty
+    if (this.isEmpty()) {
+      throw new NoSuchElementException("BucketApplicationQueue is empty");
+    }
+
+    return this.buckets[this.minBucket][this.counts[this.minBucket] - 1];
+  }
+
+  /**
+   * Returns a String representing this BucketApplicationQueue, where each element (application) of
+   * the queue is listed on a separate line, in order from the lowest score to the highest score.
+   *
+   * @see Application#toString()
+   * @return a String representing this BucketApplicationQueue
+   */
+  @Override
+  public String toString() {
+    StringBuilder val = new StringBuilder();
+
+    for (Application a : this) {
+      val.append(a).append("\n");
+    }
+
+    return val.toString();
+  }
+
+  /**
+   * Returns an Iterator for this BucketApplicationQueue which proceeds from the lowest-scored to
+   * the highest-scored Application, in the same order as successive calls to dequeue() would. The
+   * iterator walks the buckets directly, without copying them.
+   *
+   * @return an Iterator for this BucketApplicationQueue
+   */
+  @Override
+  public Iterator<Application> iterator() {
+    return new BucketIterator(false);
+  }
+
+  /**
+   * Returns the Applications of this BucketApplicationQueue bucket by bucket, each bucket from its
+   * first element to its last one, so that enqueuing them in this order rebuilds the same buckets
+   *
+   * @return the Applications of this BucketApplicationQueue in their stored order
+   */
+  @Override
+  public Iterable<Application> storedOrder() {
+    return () -> new BucketIterator(true);
+  }
+
+  /**
+   * Iterates over the buckets from the lowest score to the highest score, and over each bucket
+   * from its last element to its first one, or from its first element to its last one in stored
+   * order.
+   */
+  private class BucketIterator implements Iterator<Application> {
+    private final boolean stored; // whether each bucket is iterated from its first element
+    private int bucket = minBucket; // bucket of the next element
+    private int index; // index of the next element in its bucket
+
+    private BucketIterator(boolean stored) {
+      this.stored = stored;
+      this.index = firstIndex();
+    }
+
+    @Override
+    public boolean hasNext() {
+      return bucket < BUCKET_COUNT;
+    }
+
+    @Override
+    public Application next() {
+      if (!hasNext())
+        throw new NoSuchElementException("No more elements in this iteration");
+
+      Application next = buckets[bucket][index];
+
+      // move to the following element of the bucket, or to the next non-empty bucket
+      index += stored ? 1 : -1;
+      if (index < 0 || index == counts[bucket]) {
+        bucket++;
+        while (bucket < BUCKET_COUNT && counts[bucket] == 0) {
+          bucket++;
+        }
+        index = firstIndex();
+      }
+
+      return next;
+    }
+
+    /**
+     * Returns the index of the first element of the current bucket to iterate over
+     *
+     * @return the index of the first element to iterate over in the current bucket
+     */
+    private int firstIndex() {
+      if (bucket == BUCKET_COUNT) {
+        return -1;
+      }
+      return stored ? 0 : counts[bucket] - 1;
+    }
+  }
+}
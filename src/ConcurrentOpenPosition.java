@@ -0,0 +1,281 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: ConcurrentOpenPosition.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A thread-safe open position, which can be added to by many threads at once. Once the position is
+ * full, the lowest admitted score can only increase, so it is published in a volatile field and an
+ * Application which does not beat it is rejected without taking any lock. Only the Applications
+ * beating it contend for the lock guarding the underlying OpenPosition.
+ *
+ * A position which filters duplicate emails or has a journal must see every Application, so that
+ * the rejected emails are filtered later and the rejections are journaled. Such positions take the
+ * lock for every Application, with the same outcomes as adding them sequentially.
+ */
+public class ConcurrentOpenPosition {
+  private final OpenPosition position; // the position holding the admitted applications
+  private final ReentrantLock lock; // guards every access to position
+  private volatile int threshold; // lowest admitted score once full, Application.MIN_SCORE - 1
+                                  // before
+  private final boolean fastRejection; // whether rejections can skip position
+
+  /**
+   * Creates a new thread-safe open position with the given capacity
+   *
+   * @param positionName the name of this position
+   * @param capacity     the number of vacancies of this position
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   */
+  public ConcurrentOpenPosition(String positionName, int capacity) {
+    this(new OpenPosition(positionName, capacity));
+  }
+
+  /**
+   * Creates a new thread-safe open position on top of the given position, which must not be used
+   * directly anymore. Its journal, if any, must then be set already.
+   *
+   * @param position the position holding the admitted applications
+   * @throws NullPointerException if the given position is null
+   */
+  public ConcurrentOpenPosition(OpenPosition position) {
+    if (position == null) {
+      throw new NullPointerException("the given position is null");
+    }
+
+    this.position = position;
+    this.lock = new ReentrantLock();
+    this.fastRejection = !position.recordsRejections();
+    this.threshold = position.isFull() ? position.getMinScore() : Application.MIN_SCORE - 1;
+  }
+
+  public String getPositionName() {
+    return this.position.getPositionName();
+  }
+
+  /**
+   * Tries to add the given Application to this position. An Application whose score does not beat
+   * the published threshold is rejected without locking, unless the position records rejections.
+   *
+   * @param application the Application to add
+   * @return Whether the given Application was added successfully
+   * @throws NullPointerException if the given Application is null
+   */
+  public boolean add(Application application) {
+    if (this.fastRejection && application.getScore() <= this.threshold) {
+      PositionMetrics metrics = this.position.getMetrics();
+      if (metrics != null) {
+        metrics.recordRejected(1);
+      }
+      return false; // fast rejection, the threshold never decreases
+    }
+
+    this.lock.lock();
+    try {
+      boolean added = this.position.add(application);
+      publishThreshold();
+      return added;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Adds the given Applications to this position, with the same outcome as calling add() for each
+   * of them. The Applications which do not beat the published threshold are rejected without
+   * locking, unless the position records rejections, and the lock is taken once for all the
+   * others.
+   *
+   * @param applications the Applications to add
+   * @return the number of admitted, rejected and evicted Applications
+   * @throws NullPointerException if the given array or one of its Applications is null
+   */
+  public BatchResult addAll(Application[] applications) {
+    int threshold = this.fastRejection ? this.threshold : Application.MIN_SCORE - 1;
+    Application[] candidates = new Application[applications.length];
+    int count = 0;
+    for (Application a : applications) {
+      if (a.getScore() > threshold) {
+        candidates[count++] = a;
+      }
+    }
+
+    PositionMetrics metrics = this.position.getMetrics();
+    if (metrics != null) {
+      metrics.recordRejected(applications.length - count);
+    }
+
+    BatchResult result;
+    this.lock.lock();
+    try {
+      result = this.position.addAll(Arrays.asList(candidates).subList(0, count));
+      publishThreshold();
+    } finally {
+      this.lock.unlock();
+    }
+
+    return new BatchResult(result.getAdmitted(),
+        result.getRejected() + applications.length - count, result.getEvicted());
+  }
+
+  /**
+   * Publishes the lowest admitted score of the position once it is full. Must be called with the
+   * lock held.
+   */
+  private void publishThreshold() {
+    if (this.position.isFull()) {
+      this.threshold = this.position.getMinScore();
+    }
+  }
+
+  /**
+   * Returns an immutable view of the current state of this position, which can then be read
+   * without locking. The lock is only held to take the view, in constant time.
+   *
+   * @return an immutable view of the current state of this position
+   */
+  public PositionView snapshot() {
+    this.lock.lock();
+    try {
+      return this.position.snapshot();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the score an Application must beat to be added to this position, read without locking
+   *
+   * @return the lowest admitted score if this position is full, Application.MIN_SCORE - 1
+   *         otherwise
+   */
+  public int getThreshold() {
+    return this.threshold;
+  }
+
+  /**
+   * Returns the list of Applications of this position.
+   *
+   * @return The list of Applications of this position, in increasing order of the scores.
+   */
+  public String getApplications() {
+    this.lock.lock();
+    try {
+      return this.position.getApplications();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the total score of the Applications of this position.
+   *
+   * @return The total score of the Applications of this position.
+   */
+  public long getTotalScore() {
+    this.lock.lock();
+    try {
+      return this.position.getTotalScore();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of Applications of this position.
+   *
+   * @return The number of Applications of this position.
+   */
+  public int getApplicationCount() {
+    this.lock.lock();
+    try {
+      return this.position.getApplicationCount();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns a copy of the score histogram of the Applications of this position.
+   *
+   * @see OpenPosition#getScoreHistogram()
+   * @return a copy of the score histogram of the Applications of this position
+   */
+  public int[] getScoreHistogram() {
+    this.lock.lock();
+    try {
+      return this.position.getScoreHistogram();
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the number of Applications of this position scoring at least the given score.
+   *
+   * @see OpenPosition#countAtLeast(int)
+   * @param score any score
+   * @return the number of Applications of this position scoring score or more
+   */
+  public int countAtLeast(int score) {
+    this.lock.lock();
+    try {
+      return this.position.countAtLeast(score);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the rank an Application having the given score has among the Applications of this
+   * position.
+   *
+   * @see OpenPosition#getRank(int)
+   * @param score any score
+   * @return 1 plus the number of Applications of this position scoring more than score
+   */
+  public int getRank(int score) {
+    this.lock.lock();
+    try {
+      return this.position.getRank(score);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the percentile of the given score among the Applications of this position.
+   *
+   * @see OpenPosition#getPercentile(int)
+   * @param score any score
+   * @return the percentage of the Applications of this position scoring less than score
+   */
+  public double getPercentile(int score) {
+    this.lock.lock();
+    try {
+      return this.position.getPercentile(score);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the score of the n-th best Application of this position.
+   *
+   * @see OpenPosition#selectNthBest(int)
+   * @param n the rank of the Application, 1 for the highest-scored one
+   * @return the score of the n-th highest-scored Application of this position
+   */
+  public int selectNthBest(int n) {
+    this.lock.lock();
+    try {
+      return this.position.selectNthBest(n);
+    } finally {
+      this.lock.unlock();
+    }
+  }
+}
@@ -0,0 +1,342 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: DuplicateEmailFilter.java
+///////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Remembers the emails submitted to a position, so that the same applicant is not considered twice.
+ * Emails are not retained: each one is reduced to a 64-bit hash, computed without allocating.
+ *
+ * The hashes go through two stages. A Bloom filter, a bit array where each hash sets a few bits,
+ * answers in a few memory reads whether an email was certainly never seen. Only the emails it may
+ * have seen are looked up in an open-addressing hash set of primitive longs, which stores every
+ * hash exactly.
+ *
+ * The memory used is bounded: the hash set stops growing once it holds maxEntries hashes. From
+ * then on, new emails are only recorded in the Bloom filter, whose answers become final. An email
+ * may then rarely be taken for a duplicate, but never the other way around.
+ */
+public class DuplicateEmailFilter {
+  public static final int MAX_EXPECTED_EMAILS = 1 << 26; // Bloom filter of at most 2^30 bits
+  public static final int MAX_ENTRIES = (1 << 30) / 4 * 3; // hash set of at most 2^30 slots
+
+  private static final int BLOOM_BITS_PER_EMAIL = 10; // about 1% false positives
+  private static final int BLOOM_HASHES = 7; // bits set by each email in the Bloom filter
+  private static final int MIN_TABLE_LENGTH = 16; // initial length of the hash set table
+  private static final long EMPTY = 0; // marks an empty slot of the hash set table
+  private static final long ZERO_HASH = 0x9E3779B97F4A7C15L; // stored instead of a 0 hash
+
+  private final long[] bloom; // bits of the Bloom filter
+  private final int bloomMask; // number of bits of the Bloom filter - 1
+  private long[] table; // open-addressing hash set of email hashes, EMPTY for free slots
+  private int entries; // number of hashes in the table
+  private final int maxEntries; // number of hashes the table may hold
+  private int size; // number of distinct emails recorded
+  private boolean saturated; // whether emails were recorded only in the Bloom filter
+
+  /**
+   * Creates a new empty DuplicateEmailFilter sized for the given number of emails, able to store
+   * all their hashes exactly
+   *
+   * @param expectedEmails the number of distinct emails expected
+   * @throws IllegalArgumentException with a descriptive error message if the number of emails is
+   *                                  not a positive integer
+   */
+  public DuplicateEmailFilter(int expectedEmails) {
+    this(expectedEmails, expectedEmails);
+  }
+
+  /**
+   * Creates a new empty DuplicateEmailFilter sized for the given number of emails, which stores at
+   * most maxEntries hashes exactly
+   *
+   * @param expectedEmails the number of distinct emails expected
+   * @param maxEntries     the number of hashes stored exactly, bounding the memory used
+   * @throws IllegalArgumentException with a descriptive error message if a number is not a
+   *                                  positive integer, or if there are more expected emails than
+   *                                  MAX_EXPECTED_EMAILS or entries than MAX_ENTRIES
+   */
+  public DuplicateEmailFilter(int expectedEmails, int maxEntries) {
+    if (expectedEmails <= 0 || expectedEmails > MAX_EXPECTED_EMAILS) {
+      throw new IllegalArgumentException("expected number of emails is invalid");
+    }
+    if (maxEntries <= 0 || maxEntries > MAX_ENTRIES) {
+      throw new IllegalArgumentException("maximum number of entries is invalid");
+    }
+
+    int bloomBits = powerOfTwo((long) expectedEmails * BLOOM_BITS_PER_EMAIL);
+    this.bloom = new long[Math.max(1, bloomBits >>> 6)];
+    this.bloomMask = this.bloom.length * 64 - 1;
+    this.table = new long[MIN_TABLE_LENGTH];
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * Creates a DuplicateEmailFilter restored from a saved state, whose hashes are then added back
+   * with restoreHash()
+   *
+   * @param bloom      the saved bits of the Bloom filter, whose length is a power of two
+   * @param maxEntries the number of hashes stored exactly
+   * @param size       the number of distinct emails recorded
+   * @param saturated  whether emails were recorded only in the Bloom filter
+   * @throws IllegalArgumentException if the length of the Bloom filter is not a power of two, or
+   *                                  if a number is out of range
+   */
+  DuplicateEmailFilter(long[] bloom, int maxEntries, int size, boolean saturated) {
+    if (Integer.bitCount(bloom.length) != 1 || bloom.length > 1 << 24) { // at most 2^30 bits
+      throw new IllegalArgumentException("Bloom filter length is invalid");
+    }
+    if (maxEntries <= 0 || maxEntries > MAX_ENTRIES || size < 0) {
+      throw new IllegalArgumentException("maximum number of entries is invalid");
+    }
+
+    this.bloom = bloom;
+    this.bloomMask = bloom.length * 64 - 1;
+    this.table = new long[MIN_TABLE_LENGTH];
+    this.maxEntries = maxEntries;
+    this.size = size;
+    this.saturated = saturated;
+  }
+
+  /**
+   * Records the given email, if it was not recorded before
+   *
+   * @param email the email of an applicant
+   * @return {@code true} if the email was not recorded before, {@code false} if it is a duplicate
+   * @throws NullPointerException if the given email is null
+   */
+  public boolean add(String email) {
+    long hash = hash(email);
+
+    if (!mightContain(hash)) {
+      addToBloom(hash);
+      addToTable(hash);
+      this.size++;
+      return true;
+    }
+
+    if (tableContains(hash)) {
+      return false; // certainly seen
+    }
+    if (this.saturated) {
+      return false; // the Bloom filter is the only record of some emails
+    }
+
+    // a false positive of the Bloom filter
+    addToTable(hash);
+    this.size++;
+    return true;
+  }
+
+  /**
+   * Checks whether the given email was recorded
+   *
+   * @param email the email of an applicant
+   * @return {@code true} if the email was recorded, or if it may have been once this filter is
+   *         saturated
+   * @throws NullPointerException if the given email is null
+   */
+  public boolean contains(String email) {
+    long hash = hash(email);
+    return mightContain(hash) && (this.saturated || tableContains(hash));
+  }
+
+  /**
+   * Returns the number of distinct emails recorded
+   *
+   * @return the number of distinct emails recorded
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Checks whether the hash set is full, so that new emails are only recorded in the Bloom filter
+   * and a few of them may be taken for duplicates
+   *
+   * @return {@code true} if some emails are only recorded in the Bloom filter
+   */
+  public boolean isSaturated() {
+    return this.saturated;
+  }
+
+  /**
+   * Returns the number of bytes used by the Bloom filter and the hash set of this filter
+   *
+   * @return the number of bytes of the arrays of this filter
+   */
+  public long getMemoryBytes() {
+    return (long) (this.bloom.length + this.table.length) * Long.BYTES;
+  }
+
+  /**
+   * Returns the bits of the Bloom filter, to be saved
+   *
+   * @return the array of the Bloom filter itself, which must not be modified
+   */
+  long[] getBloom() {
+    return this.bloom;
+  }
+
+  /**
+   * Returns the table of the hash set, to be saved
+   *
+   * @return the array of the hash set itself, EMPTY for free slots, which must not be modified
+   */
+  long[] getTable() {
+    return this.table;
+  }
+
+  /**
+   * Returns the number of hashes in the hash set
+   *
+   * @return the number of non-EMPTY slots of the table
+   */
+  int getEntries() {
+    return this.entries;
+  }
+
+  /**
+   * Returns the number of hashes the hash set may hold
+   *
+   * @return the maximum number of entries given to the constructor
+   */
+  int getMaxEntries() {
+    return this.maxEntries;
+  }
+
+  /**
+   * Adds back a slot of a saved table to the hash set
+   *
+   * @param key a non-EMPTY slot of the table returned by getTable()
+   * @return {@code false} if the key is EMPTY or already in the hash set, or if the hash set is
+   *         full
+   */
+  boolean restoreHash(long key) {
+    if (key == EMPTY || this.entries == this.maxEntries || tableContains(key)) {
+      return false;
+    }
+    addToTable(key);
+    return true;
+  }
+
+  /**
+   * Checks whether the Bloom filter may have seen the given hash
+   *
+   * @param hash the hash of an email
+   * @return {@code false} if the hash was certainly never added to the Bloom filter
+   */
+  private boolean mightContain(long hash) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32) | 1;
+    for (int i = 0; i < BLOOM_HASHES; i++) {
+      int bit = (h1 + i * h2) & this.bloomMask;
+      if ((this.bloom[bit >>> 6] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Sets the bits of the given hash in the Bloom filter
+   *
+   * @param hash the hash of an email
+   */
+  private void addToBloom(long hash) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32) | 1;
+    for (int i = 0; i < BLOOM_HASHES; i++) {
+      int bit = (h1 + i * h2) & this.bloomMask;
+      this.bloom[bit >>> 6] |= 1L << bit;
+    }
+  }
+
+  /**
+   * Checks whether the hash set contains the given hash
+   *
+   * @param hash the hash of an email
+   * @return {@code true} if the hash is in the hash set
+   */
+  private boolean tableContains(long hash) {
+    long key = hash == EMPTY ? ZERO_HASH : hash;
+    int mask = this.table.length - 1;
+    for (int slot = (int) (key ^ (key >>> 32)) & mask; ; slot = (slot + 1) & mask) {
+      if (this.table[slot] == key) {
+        return true;
+      }
+      if (this.table[slot] == EMPTY) {
+        return false;
+      }
+    }
+  }
+
+  /**
+   * Adds the given hash, which is not in the hash set, to the hash set if it is not full, and
+   * grows the table when it is three quarters full
+   *
+   * @param hash the hash of an email
+   */
+  private void addToTable(long hash) {
+    if (this.entries == this.maxEntries) {
+      this.saturated = true;
+      return;
+    }
+
+    if (this.entries + 1 > this.table.length / 4 * 3) {
+      long[] old = this.table;
+      this.table = new long[old.length * 2];
+      for (long key : old) {
+        if (key != EMPTY) {
+          insert(key);
+        }
+      }
+    }
+
+    insert(hash == EMPTY ? ZERO_HASH : hash);
+    this.entries++;
+  }
+
+  /**
+   * Stores the given key in the first free slot of its probe sequence
+   *
+   * @param key a non-EMPTY key which is not in the table
+   */
+  private void insert(long key) {
+    int mask = this.table.length - 1;
+    int slot = (int) (key ^ (key >>> 32)) & mask;
+    while (this.table[slot] != EMPTY) {
+      slot = (slot + 1) & mask;
+    }
+    this.table[slot] = key;
+  }
+
+  /**
+   * Computes a 64-bit hash of the given email without allocating, with FNV-1a over its chars
+   * followed by a final mix so that every bit of the hash depends on every char
+   *
+   * @param email the email to hash
+   * @return the hash of the email
+   * @throws NullPointerException if the given email is null
+   */
+  static long hash(String email) {
+    long hash = 0xCBF29CE484222325L;
+    for (int i = 0; i < email.length(); i++) {
+      hash = (hash ^ email.charAt(i)) * 0x100000001B3L;
+    }
+
+    hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+    hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+    return hash ^ (hash >>> 33);
+  }
+
+  /**
+   * Returns the lowest power of two which is at least the given number, and at least 64
+   *
+   * @param n a positive number, at most 2^30
+   * @return the lowest power of two >= n
+   */
+  private static int powerOfTwo(long n) {
+    return (int) Math.max(64, Long.highestOneBit(n - 1) << 1);
+  }
+}
@@ -0,0 +1,267 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: IndexedApplicationQueue.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ApplicationQueue which also maps the email of each of its Applications to its index in the
+ * array-heap. The map is updated whenever percolating moves an Application, so that an Application
+ * can be found by email in constant time, then removed or re-scored in O(log n) time instead of
+ * rebuilding the whole queue.
+ *
+ * Emails identify Applications: this queue never holds two Applications having the same email.
+ */
+public class IndexedApplicationQueue extends ApplicationQueue {
+  private Map<String, Integer> indexes; // index in the array-heap of each email
+  private boolean sharedIndexes; // whether the indexes are shared with a copy, and must be copied
+                                 // before being modified
+
+  /**
+   * Creates a new empty IndexedApplicationQueue with the given capacity
+   *
+   * @param capacity Capacity of this IndexedApplicationQueue
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   */
+  public IndexedApplicationQueue(int capacity) {
+    this(capacity, 2);
+  }
+
+  /**
+   * Creates a new empty IndexedApplicationQueue with the given capacity, whose heap nodes have the
+   * given number of children
+   *
+   * @param capacity Capacity of this IndexedApplicationQueue
+   * @param arity    number of children of each node of the heap, 2 for a binary heap
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer, or if the arity is lower than 2
+   */
+  public IndexedApplicationQueue(int capacity, int arity) {
+    super(capacity, arity);
+    this.indexes = new HashMap<>();
+  }
+
+  /**
+   * Creates a new IndexedApplicationQueue sharing the arrays and the indexes of the given queue,
+   * which each of the two queues copies before its first modification
+   *
+   * @param other the IndexedApplicationQueue whose arrays and indexes are shared
+   */
+  private IndexedApplicationQueue(IndexedApplicationQueue other) {
+    super(other);
+    this.indexes = other.indexes;
+    this.sharedIndexes = true;
+    other.sharedIndexes = true;
+  }
+
+  /**
+   * Adds the given Application to this IndexedApplicationQueue
+   *
+   * @param o Application to add to this IndexedApplicationQueue
+   * @throws NullPointerException     if the given Application is null
+   * @throws IllegalArgumentException with a descriptive error message if an Application having
+   *                                  the same email is already in this queue
+   * @throws IllegalStateException    with a descriptive error message if this queue is full
+   */
+  @Override
+  public void enqueue(Application o) {
+    if (o != null && contains(o.getEmail())) {
+      throw new IllegalArgumentException("email is already in the queue");
+    }
+    super.enqueue(o);
+  }
+
+  /**
+   * Adds all the given Applications to this IndexedApplicationQueue. This queue is not modified if
+   * an exception is thrown.
+   *
+   * @param applications Applications to add to this IndexedApplicationQueue
+   * @throws NullPointerException     if the given array or one of its Applications is null
+   * @throws IllegalArgumentException with a descriptive error message if two Applications have the
+   *                                  same email, given or already in this queue
+   * @throws IllegalStateException    with a descriptive error message if there is not enough room
+   *                                  for all the given Applications
+   */
+  @Override
+  public void enqueueAll(Application[] applications) {
+    Set<String> emails = new HashSet<>();
+    for (Application a : applications) {
+      if (a == null) {
+        throw new NullPointerException("the given Application is null");
+      }
+      if (contains(a.getEmail()) || !emails.add(a.getEmail())) {
+        throw new IllegalArgumentException("email is already in the queue");
+      }
+    }
+    super.enqueueAll(applications);
+  }
+
+  /**
+   * Appends the given Application to this array-heap without percolating it, as when reloading
+   * Applications saved in array-heap order
+   *
+   * @param o Application to append to this IndexedApplicationQueue
+   * @throws NullPointerException  if the given Application is null
+   * @throws IllegalStateException with a descriptive error message if this queue is full, or if
+   *                               the Application is lower than its parent, or if an Application
+   *                               having the same email is already in this queue
+   */
+  @Override
+  void appendHeapOrdered(Application o) {
+    if (contains(o.getEmail())) {
+      throw new IllegalStateException("email is already in the queue");
+    }
+    super.appendHeapOrdered(o);
+  }
+
+  /**
+   * Removes and returns the Application with the lowest score
+   *
+   * @return the Application in this queue with the smallest score
+   * @throws java.util.NoSuchElementException if this queue is empty
+   */
+  @Override
+  public Application dequeue() {
+    Application removed = super.dequeue();
+    writableIndexes().remove(removed.getEmail());
+    return removed;
+  }
+
+  /**
+   * Replaces the Application with the lowest score with the given Application
+   *
+   * @param o Application to add to this IndexedApplicationQueue
+   * @return the removed Application, which had the smallest score
+   * @throws NullPointerException             if the given Application is null
+   * @throws IllegalArgumentException         with a descriptive error message if another
+   *                                          Application having the same email is in this queue
+   * @throws java.util.NoSuchElementException if this queue is empty
+   */
+  @Override
+  public Application replaceTop(Application o) {
+    if (o != null) {
+      Integer index = this.indexes.get(o.getEmail());
+      if (index != null && index != 0) {
+        throw new IllegalArgumentException("email is already in the queue");
+      }
+    }
+
+    Application removed = super.replaceTop(o);
+    if (!removed.getEmail().equals(o.getEmail())) {
+      writableIndexes().remove(removed.getEmail());
+    }
+    return removed;
+  }
+
+  /**
+   * Checks whether an Application having the given email is in this queue
+   *
+   * @param email the email of an applicant
+   * @return {@code true} if an Application having this email is in this queue
+   */
+  public boolean contains(String email) {
+    return this.indexes.containsKey(email);
+  }
+
+  /**
+   * Checks whether an Application having the same email as the given one is in this queue, which
+   * cannot hold it twice
+   *
+   * @param o an Application about to be added to this queue
+   * @return {@code true} if an Application having the email of o is in this queue
+   */
+  @Override
+  public boolean isDuplicate(Application o) {
+    return contains(o.getEmail());
+  }
+
+  /**
+   * Returns the Application having the given email
+   *
+   * @param email the email of an applicant
+   * @return the Application having this email, or null if there is none in this queue
+   */
+  public Application get(String email) {
+    Integer index = this.indexes.get(email);
+    return index == null ? null : get(index);
+  }
+
+  /**
+   * Removes the Application having the given email from this queue, in O(log n) time
+   *
+   * @param email the email of an applicant
+   * @return the removed Application, or null if there is none having this email in this queue
+   */
+  public Application remove(String email) {
+    Integer index = this.indexes.get(email);
+    if (index == null) {
+      return null;
+    }
+    writableIndexes().remove(email);
+    return removeAt(index);
+  }
+
+  /**
+   * Replaces the Application having the given email with a copy having the given score, in
+   * O(log n) time
+   *
+   * @param email    the email of an applicant
+   * @param newScore the new score of this applicant
+   * @return the replaced Application, or null if there is none having this email in this queue
+   * @throws IllegalArgumentException if the new score is not in the 0 .. 100 range
+   */
+  public Application updateScore(String email, int newScore) {
+    Integer index = this.indexes.get(email);
+    if (index == null) {
+      return null;
+    }
+
+    Application old = get(index);
+    return replaceAt(index, new Application(old.getName(), email, newScore));
+  }
+
+  /**
+   * Returns a deep copy of this IndexedApplicationQueue containing all of its elements in the same
+   * order, with its own index.
+   *
+   * The copy is made in constant time: both queues share the arrays and the indexes, and each of
+   * them copies them before its first modification, so that it never sees the modifications of
+   * the other.
+   *
+   * @return a deep copy of this IndexedApplicationQueue
+   */
+  @Override
+  public IndexedApplicationQueue deepCopy() {
+    return new IndexedApplicationQueue(this);
+  }
+
+  /**
+   * Records the index of the given Application
+   *
+   * @param application the stored Application
+   * @param i           the index where it is stored
+   */
+  @Override
+  void placed(Application application, int i) {
+    writableIndexes().put(application.getEmail(), i);
+  }
+
+  /**
+   * Copies the indexes of this queue if they are shared with a copy, so that they can be modified
+   * without the copy seeing it
+   *
+   * @return the indexes of this queue, which can be modified
+   */
+  private Map<String, Integer> writableIndexes() {
+    if (this.sharedIndexes) {
+      this.indexes = new HashMap<>(this.indexes);
+      this.sharedIndexes = false;
+    }
+    return this.indexes;
+  }
+}
@@ -0,0 +1,553 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: MinMaxApplicationQueue.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Array-based min-max heap implementation of a double-ended priority queue containing
+ * Applications. Levels alternate: the elements of even levels, starting with the root, have the
+ * lowest score of their subtree, and the elements of odd levels have the highest score of their
+ * subtree. The lowest-scored Application is then at the root and the highest-scored one is at the
+ * root or one of its children, so that both ends can be peeked in constant time and dequeued in
+ * O(log n) time.
+ *
+ * As a PriorityQueueADT, it behaves like a min-heap: peek(), dequeue() and replaceTop() work on
+ * the lowest-scored Application. The score of each Application is kept in a parallel int array.
+ */
+public class MinMaxApplicationQueue implements PriorityQueueADT<Application> {
+  private final Application[] queue; // array min-max heap of applications
+  private final int[] scores; // scores[i] is the score of queue[i]
+  private int size; // size of this priority queue
+  private int modCount; // number of modifications of this queue, checked by its iterators
+
+  /**
+   * Creates a new empty MinMaxApplicationQueue with the given capacity
+   *
+   * @param capacity Capacity of this MinMaxApplicationQueue
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   */
+  public MinMaxApplicationQueue(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity is invalid.");
+    }
+
+    this.queue = new Application[capacity];
+    this.scores = new int[capacity];
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Adds the given Application to this MinMaxApplicationQueue, in O(log n) time
+   *
+   * @param o Application to add to this MinMaxApplicationQueue
+   * @throws NullPointerException  if the given Application is null
+   * @throws IllegalStateException with a descriptive error message if this queue is full
+   */
+  @Override
+  public void enqueue(Application o) {
+    if (o == null) {
+      throw new NullPointerException("the given Application is null");
+    }
+    if (this.size == this.queue.length) {
+      throw new IllegalStateException("queue is full");
+    }
+
+    this.queue[this.size] = o;
+    this.scores[this.size] = o.getScore();
+    this.size++;
+    this.modCount++;
+    pushUp(this.size - 1);
+  }
+
+  /**
+   * Removes and returns the Application with the lowest score
+   *
+   * @return the Application in this queue with the smallest score
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application dequeue() {
+    return dequeueMin();
+  }
+
+  /**
+   * Returns the Application with the lowest score
+   *
+   * @return the Application in this queue with the smallest score
+   * @throws NoSuchElementException if this queue is empty
+   */
+  @Override
+  public Application peek() {
+    return peekMin();
+  }
+
+  /**
+   * Returns the Application with the lowest score, in constant time
+   *
+   * @return the Application in this queue with the smallest score
+   * @throws NoSuchElementException if this queue is empty
+   */
+  public Application peekMin() {
+    if (this.size == 0) {
+      throw new NoSuchElementException("queue is empty");
+    }
+    return this.queue[0];
+  }
+
+  /**
+   * Returns the Application with the highest score, in constant time
+   *
+   * @return the Application in this queue with the highest score
+   * @throws NoSuchElementException if this queue is empty
+   */
+  public Application peekMax() {
+    if (this.size == 0) {
+      throw new NoSuchElementException("queue is empty");
+    }
+    return this.queue[maxIndex()];
+  }
+
+  /**
+   * Removes and returns the Application with the lowest score, in O(log n) time
+   *
+   * @return the Application in this queue with the smallest score
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  public Application dequeueMin() {
+    if (this.size == 0) {
+      throw new NoSuchElementException("queue is empty");
+    }
+    return removeAt(0);
+  }
+
+  /**
+   * Removes and returns the Application with the highest score, in O(log n) time
+   *
+   * @return the Application in this queue with the highest score
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  public Application dequeueMax() {
+    if (this.size == 0) {
+      throw new NoSuchElementException("queue is empty");
+    }
+    return removeAt(maxIndex());
+  }
+
+  /**
+   * Replaces the Application with the lowest score with the given Application, pushing it down
+   * once instead of a dequeue() followed by an enqueue()
+   *
+   * @param o Application to add to this MinMaxApplicationQueue
+   * @return the removed Application, which had the smallest score
+   * @throws NullPointerException   if the given Application is null
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application replaceTop(Application o) {
+    if (o == null) {
+      throw new NullPointerException("the given Application is null");
+    }
+    if (this.size == 0) {
+      throw new NoSuchElementException("queue is empty");
+    }
+
+    Application removed = this.queue[0];
+    this.queue[0] = o;
+    this.scores[0] = o.getScore();
+    this.modCount++;
+    pushDown(0);
+    return removed;
+  }
+
+  /**
+   * Adds the given Application to this queue if it is not full. Otherwise, replaces the
+   * lowest-scored Application with the given one if the given one has a higher score.
+   *
+   * @param o Application to offer to this queue
+   * @return {@code null} if the Application was added without eviction, the evicted Application if
+   *         the given one replaced it, or the given Application if it was not added
+   * @throws NullPointerException if the given Application is null
+   */
+  @Override
+  public Application offer(Application o) {
+    if (o == null) {
+      throw new NullPointerException("the given Application is null");
+    }
+    if (this.size < this.queue.length) {
+      enqueue(o);
+      return null;
+    }
+    if (this.scores[0] < o.getScore()) {
+      return replaceTop(o);
+    }
+    return o;
+  }
+
+  /**
+   * Returns the n highest-scored Applications, from the highest-scored, without modifying or
+   * copying this queue. A max-heap of candidate indexes is explored best-first: an element of a
+   * max level is at least as high as its whole subtree, so that once it is taken, the next
+   * candidates of its subtree are its children, themselves, and its grandchildren, as the highest
+   * elements of their subtrees. Runs in O(n log n) time, whatever the size of this queue.
+   *
+   * @param n the number of Applications to return
+   * @return a new list of the min(n, size()) highest-scored Applications, in decreasing order of
+   *         the scores
+   * @throws IllegalArgumentException if n is negative
+   */
+  @Override
+  public List<Application> topCandidates(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("number of candidates is negative");
+    }
+
+    int count = Math.min(n, this.size);
+    List<Application> top = new ArrayList<>(count);
+    if (count == 0) {
+      return top;
+    }
+
+    // the root is the lowest element, and its children are the highest of their subtrees. Each
+    // taken candidate adds at most six distinct ones
+    int[] candidates = new int[(int) Math.min(this.size, 5L * count + 3)];
+    int candidateCount = 0;
+    for (int i = 0; i < 3 && i < this.size; i++) {
+      candidateCount = pushCandidate(candidates, candidateCount, i);
+    }
+
+    while (top.size() < count) {
+      int best = candidates[0];
+      candidateCount = popCandidate(candidates, candidateCount);
+      top.add(this.queue[best]);
+
+      if (!isMinLevel(best)) {
+        // children are the lowest of their subtrees, grandchildren the highest
+        for (int child = 2 * best + 1; child <= 2 * best + 2 && child < this.size; child++) {
+          candidateCount = pushCandidate(candidates, candidateCount, child);
+          for (int grandchild = 2 * child + 1; grandchild <= 2 * child + 2
+              && grandchild < this.size; grandchild++) {
+            candidateCount = pushCandidate(candidates, candidateCount, grandchild);
+          }
+        }
+      }
+    }
+
+    return top;
+  }
+
+  /**
+   * Adds the given index to a max-heap of candidate indexes ordered by score
+   *
+   * @param candidates the max-heap of candidate indexes
+   * @param count      the number of candidates
+   * @param index      the index of this queue to add
+   * @return the new number of candidates
+   */
+  private int pushCandidate(int[] candidates, int count, int index) {
+    int i = count;
+    while (i != 0 && this.scores[candidates[(i - 1) / 2]] < this.scores[index]) {
+      candidates[i] = candidates[(i - 1) / 2];
+      i = (i - 1) / 2;
+    }
+    candidates[i] = index;
+    return count + 1;
+  }
+
+  /**
+   * Removes the highest-scored index from a max-heap of candidate indexes
+   *
+   * @param candidates the non-empty max-heap of candidate indexes
+   * @param count      the number of candidates
+   * @return the new number of candidates
+   */
+  private int popCandidate(int[] candidates, int count) {
+    count--;
+    int moving = candidates[count];
+    int i = 0;
+    while (2 * i + 1 < count) {
+      int child = 2 * i + 1;
+      if (child + 1 < count
+          && this.scores[candidates[child + 1]] > this.scores[candidates[child]]) {
+        child++;
+      }
+      if (this.scores[candidates[child]] <= this.scores[moving]) {
+        break;
+      }
+      candidates[i] = candidates[child];
+      i = child;
+    }
+    candidates[i] = moving;
+    return count;
+  }
+
+  /**
+   * Returns the index of the highest-scored Application of this non-empty queue
+   *
+   * @return the root if it is alone, or else its highest-scored child
+   */
+  private int maxIndex() {
+    if (this.size == 1) {
+      return 0;
+    }
+    if (this.size == 2 || this.scores[1] >= this.scores[2]) {
+      return 1;
+    }
+    return 2;
+  }
+
+  /**
+   * Removes the Application at the given index, filling the hole with the last Application
+   *
+   * @param i index of an element of this heap
+   * @return the removed Application
+   */
+  private Application removeAt(int i) {
+    Application removed = this.queue[i];
+    this.size--;
+    this.modCount++;
+
+    if (i != this.size) {
+      this.queue[i] = this.queue[this.size];
+      this.scores[i] = this.scores[this.size];
+    }
+    this.queue[this.size] = null;
+    if (i < this.size) {
+      pushDown(i);
+    }
+
+    return removed;
+  }
+
+  /**
+   * Restores the min-max invariant by moving the element at the given index up, after it was
+   * appended
+   *
+   * @param i index of the element to move up
+   */
+  private void pushUp(int i) {
+    if (i == 0) {
+      return;
+    }
+
+    int parent = (i - 1) / 2;
+    if (isMinLevel(i)) {
+      if (this.scores[i] > this.scores[parent]) {
+        swap(i, parent);
+        pushUpGrandparents(parent, false);
+      } else {
+        pushUpGrandparents(i, true);
+      }
+    } else {
+      if (this.scores[i] < this.scores[parent]) {
+        swap(i, parent);
+        pushUpGrandparents(parent, true);
+      } else {
+        pushUpGrandparents(i, false);
+      }
+    }
+  }
+
+  /**
+   * Moves the element at the given index up through the levels of the same kind
+   *
+   * @param i   index of the element to move up
+   * @param min whether the element is on a min level
+   */
+  private void pushUpGrandparents(int i, boolean min) {
+    while (i > 2) {
+      int grandparent = ((i - 1) / 2 - 1) / 2;
+      if (min ? this.scores[i] >= this.scores[grandparent]
+          : this.scores[i] <= this.scores[grandparent]) {
+        break;
+      }
+      swap(i, grandparent);
+      i = grandparent;
+    }
+  }
+
+  /**
+   * Restores the min-max invariant by moving the element at the given index down, after it was
+   * written there
+   *
+   * @param i index of the element to move down
+   */
+  private void pushDown(int i) {
+    boolean min = isMinLevel(i);
+
+    while (2 * i + 1 < this.size) {
+      // the lowest (or highest) of the children and grandchildren
+      int m = 2 * i + 1;
+      for (int d = 2 * i + 2; d <= 2 * i + 2 && d < this.size; d++) {
+        if (min ? this.scores[d] < this.scores[m] : this.scores[d] > this.scores[m]) {
+          m = d;
+        }
+      }
+      int firstGrandchild = 4 * i + 3;
+      for (int d = firstGrandchild; d < firstGrandchild + 4 && d < this.size; d++) {
+        if (min ? this.scores[d] < this.scores[m] : this.scores[d] > this.scores[m]) {
+          m = d;
+        }
+      }
+
+      if (min ? this.scores[m] >= this.scores[i] : this.scores[m] <= this.scores[i]) {
+        return; // in place
+      }
+      swap(m, i);
+      if (m < firstGrandchild) {
+        return; // a child has no grandchildren left to compare with
+      }
+
+      // the moved element may now be beyond its parent, of the other kind of level
+      int parent = (m - 1) / 2;
+      if (min ? this.scores[m] > this.scores[parent] : this.scores[m] < this.scores[parent]) {
+        swap(m, parent);
+      }
+      i = m;
+    }
+  }
+
+  /**
+   * Checks whether the given index is on a min level, i.e. an even level
+   *
+   * @param i index of an element of this heap
+   * @return {@code true} if the level of the element is even
+   */
+  private static boolean isMinLevel(int i) {
+    return ((31 - Integer.numberOfLeadingZeros(i + 1)) & 1) == 0;
+  }
+
+  /**
+   * Swaps the elements at the given indexes
+   *
+   * @param i index of an element of this heap
+   * @param j index of another element of this heap
+   */
+  private void swap(int i, int j) {
+    Application application = this.queue[i];
+    this.queue[i] = this.queue[j];
+    this.queue[j] = application;
+    int score = this.scores[i];
+    this.scores[i] = this.scores[j];
+    this.scores[j] = score;
+  }
+
+  /**
+   * Returns the Applications of this queue in array order, without copying them
+   *
+   * @return an unmodifiable list of the Applications of this queue, in array order
+   */
+  @Override
+  public List<Application> storedOrder() {
+    return Collections.unmodifiableList(Arrays.asList(this.queue).subList(0, this.size));
+  }
+
+  /**
+   * Appends the given Application to this array min-max heap without moving it, as when reloading
+   * Applications saved in array order. Checks in constant time that it is within the bounds set by
+   * its parent and grandparent, so that the min-max invariant holds.
+   *
+   * @param o Application to append to this MinMaxApplicationQueue
+   * @throws NullPointerException  if the given Application is null
+   * @throws IllegalStateException with a descriptive error message if this queue is full, or if
+   *                               the Application is out of the bounds of its ancestors
+   */
+  @Override
+  public void appendStored(Application o) {
+    if (this.size == this.queue.length) {
+      throw new IllegalStateException("queue is full");
+    }
+
+    int i = this.size;
+    int score = o.getScore();
+    if (i != 0) {
+      int parent = (i - 1) / 2;
+      boolean min = isMinLevel(i);
+      if (min ? score > this.scores[parent] : score < this.scores[parent]) {
+        throw new IllegalStateException("application is out of the bounds of its parent");
+      }
+      if (parent != 0) {
+        int grandparent = (parent - 1) / 2;
+        if (min ? score < this.scores[grandparent] : score > this.scores[grandparent]) {
+          throw new IllegalStateException("application is out of the bounds of its grandparent");
+        }
+      }
+    }
+
+    this.queue[i] = o;
+    this.scores[i] = score;
+    this.size++;
+    this.modCount++;
+  }
+
+  /**
+   * Returns a String representing this queue, where each Application is listed on a separate
+   * line, in order from the lowest score to the highest score.
+   *
+   * @return a String representing this queue
+   */
+  @Override
+  public String toString() {
+    StringBuilder val = new StringBuilder();
+    for (Application a : this) {
+      val.append(a).append("\n");
+    }
+    return val.toString();
+  }
+
+  /**
+   * Returns an Iterator over the Applications of this queue, from the lowest-scored to the
+   * highest-scored. The Applications are counting-sorted by score in O(n) time when the iterator
+   * is created, and this queue must not be modified during the iteration.
+   *
+   * @return an Iterator for this queue
+   */
+  @Override
+  public Iterator<Application> iterator() {
+    int[] starts = new int[Application.MAX_SCORE - Application.MIN_SCORE + 2];
+    for (int i = 0; i < this.size; i++) {
+      starts[this.scores[i] - Application.MIN_SCORE + 1]++;
+    }
+    for (int s = 1; s < starts.length; s++) {
+      starts[s] += starts[s - 1];
+    }
+    Application[] sorted = new Application[this.size];
+    for (int i = 0; i < this.size; i++) {
+      sorted[starts[this.scores[i] - Application.MIN_SCORE]++] = this.queue[i];
+    }
+
+    int expectedModCount = this.modCount;
+    Iterator<Application> iterator = Arrays.asList(sorted).iterator();
+    return new Iterator<Application>() {
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+
+      @Override
+      public Application next() {
+        if (modCount != expectedModCount) {
+          throw new ConcurrentModificationException();
+        }
+        return iterator.next();
+      }
+    };
+  }
+}
@@ -0,0 +1,538 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: OffHeapApplicationQueue.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Off-heap implementation of a priority queue containing Applications, for shortlists too large to
+ * keep as Java objects. The min-heap holds one long key per Application in a direct buffer: the
+ * score in the high 32 bits and the offset of the Application record in the low 32 bits. Records
+ * (the UTF-8 name and email, each prefixed by its length) are appended to a direct arena buffer.
+ * Nothing is kept on the Java heap per Application: an Application object is only created again
+ * by peek(), dequeue(), replaceTop() and the iterator. peekScore() reads the lowest score without
+ * creating one, so that a full OpenPosition rejects Applications without allocating.
+ *
+ * When the arena is full, the records still referenced by the heap are copied into a new arena,
+ * twice as large if more than half of the old one was still in use.
+ */
+public class OffHeapApplicationQueue implements PriorityQueueADT<Application> {
+  private static final int DEFAULT_RECORD_LENGTH = 64; // arena bytes per Application by default
+
+  private final LongBuffer keys; // array min-heap of the keys of the applications
+  private final int capacity; // capacity of this priority queue
+  private int size; // size of this priority queue
+  private ByteBuffer arena; // records of the applications, referenced by their keys
+  private int arenaEnd; // offset of the end of the last record of the arena
+  private long liveBytes; // total length of the records referenced by the heap
+  private byte[] scratch; // buffer decoding the strings of a record
+  private int modCount; // number of modifications of this queue, checked by its iterators
+
+  /**
+   * Creates a new empty OffHeapApplicationQueue with the given capacity
+   *
+   * @param capacity Capacity of this OffHeapApplicationQueue
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer, or if it is too large for a direct buffer
+   */
+  public OffHeapApplicationQueue(int capacity) {
+    this(capacity, (int) Math.min(Integer.MAX_VALUE, (long) capacity * DEFAULT_RECORD_LENGTH));
+  }
+
+  /**
+   * Creates a new empty OffHeapApplicationQueue with the given capacity and initial arena length
+   *
+   * @param capacity    Capacity of this OffHeapApplicationQueue
+   * @param arenaLength initial number of bytes of the arena storing names and emails
+   * @throws IllegalArgumentException with a descriptive error message if the capacity or the arena
+   *                                  length is not a positive integer, or if the capacity is too
+   *                                  large for a direct buffer
+   */
+  public OffHeapApplicationQueue(int capacity, int arenaLength) {
+
+    // check capacity
+    if (capacity <= 0 || capacity > Integer.MAX_VALUE / Long.BYTES) {
+      throw new IllegalArgumentException("capacity is invalid.");
+    }
+
+    // check arena length
+    if (arenaLength <= 0) {
+      throw new IllegalArgumentException("arena length is invalid.");
+    }
+
+    this.keys = ByteBuffer.allocateDirect(capacity * Long.BYTES).asLongBuffer();
+    this.capacity = capacity;
+    this.arena = ByteBuffer.allocateDirect(arenaLength);
+    this.scratch = new byte[DEFAULT_RECORD_LENGTH];
+  }
+
+  /**
+   * Checks whether this OffHeapApplicationQueue is empty
+   *
+   * @return {@code true} if this OffHeapApplicationQueue is empty
+   */
+  @Override
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * Returns the size of this OffHeapApplicationQueue
+   *
+   * @return the size of this OffHeapApplicationQueue
+   */
+  @Override
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the number of bytes of the arena storing names and emails
+   *
+   * @return the current length of the arena
+   */
+  public int getArenaLength() {
+    return this.arena.capacity();
+  }
+
+  /**
+   * Writes the record of the given Application to the arena and adds its key to the heap.
+   *
+   * @param o Application to add to this OffHeapApplicationQueue
+   * @throws NullPointerException  if the given Application is null
+   * @throws IllegalStateException with a descriptive error message if this queue is full
+   */
+  @Override
+  public void enqueue(Application o) {
+
+    // verify the application
+    if (o == null) {
+      throw new NullPointerException("the given Application is null");
+    }
+
+    // verify that the queue is not full
+    if (this.size == this.capacity) {
+      throw new IllegalStateException("queue is full");
+    }
+
+    this.keys.put(this.size, write(o));
+    this.size++;
+    this.modCount++;
+    percolateUp(this.size - 1);
+  }
+
+  /**
+   * Removes and returns the Application at the root of this OffHeapApplicationQueue, i.e. the
+   * Application with the lowest score.
+   *
+   * @return the Application in this OffHeapApplicationQueue with the smallest score
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application dequeue() {
+
+    // verify that the queue is not empty
+    if (this.isEmpty()) {
+      throw new NoSuchElementException("queue is empty");
+    }
+
+    long root = this.keys.get(0);
+    Application lowest = read(root);
+    this.liveBytes -= recordLength(root);
+
+    this.size--;
+    this.modCount++;
+    if (this.size != 0) {
+      this.keys.put(0, this.keys.get(this.size));
+      percolateDown(0);
+    }
+
+    return lowest;
+  }
+
+  /**
+   * Replaces the Application at the root of this OffHeapApplicationQueue with the given
+   * Application, percolating down once.
+   *
+   * @param o Application to add to this OffHeapApplicationQueue
+   * @return the removed Application, which had the smallest score
+   * @throws NullPointerException   if the given Application is null
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  @Override
+  public Application replaceTop(Application o) {
+
+    // verify the application
+    if (o == null) {
+      throw new NullPointerException("the given Application is null");
+    }
+
+    // verify that the queue is not empty
+    if (this.isEmpty()) {
+      throw new NoSuchElementException("queue is empty");
+    }
+
+    long root = this.keys.get(0);
+    Application lowest = read(root);
+    int rootLength = recordLength(root);
+
+    // the record of the root stays live while writing the new one, in case of compaction
+    long key = write(o);
+    this.liveBytes -= rootLength;
+    this.keys.put(0, key);
+    this.modCount++;
+    percolateDown(0);
+
+    return lowest;
+  }
+
+  /**
+   * Adds the given Application to this OffHeapApplicationQueue if it is not full. Otherwise,
+   * replaces the lowest-scored Application with the given one if the given one has a higher score.
+   *
+   * @param o Application to offer to this OffHeapApplicationQueue
+   * @return {@code null} if the Application was added without eviction, the evicted Application if
+   *         the given one replaced it, or the given Application if it was not added
+   * @throws NullPointerException if the given Application is null
+   */
+  @Override
+  public Application offer(Application o) {
+
+    // verify the application
+    if (o == null) {
+      throw new NullPointerException("the given Application is null");
+    }
+
+    // there is room
+    if (this.size < this.capacity) {
+      enqueue(o);
+      return null;
+    }
+
+    // full: evict the root only if the given application has a higher score
+    if (score(this.keys.get(0)) < o.getScore()) {
+      return replaceTop(o);
+    }
+    return o;
+  }
+
+  /**
+   * Returns the Application at the root of this OffHeapApplicationQueue, i.e. the Application with
+   * the lowest score. A new Application object is created from its record.
+   *
+   * @return the Application in this OffHeapApplicationQueue with the smallest score
+   * @throws NoSuchElementException if this OffHeapApplicationQueue is empty
+   */
+  @Override
+  public Application peek() {
+    // verify that the queue is not empty
+    if (this.isEmpty()) {
+      throw new NoSuchElementException("OffHeapApplicationQueue is empty");
+    }
+
+    return read(this.keys.get(0));
+  }
+
+  /**
+   * Returns the lowest score of this OffHeapApplicationQueue, read from the key at the root
+   * without creating an Application.
+   *
+   * @return the score of the Application returned by peek()
+   * @throws NoSuchElementException if this OffHeapApplicationQueue is empty
+   */
+  public int peekScore() {
+    // verify that the queue is not empty
+    if (this.isEmpty()) {
+      throw new NoSuchElementException("OffHeapApplicationQueue is empty");
+    }
+
+    return score(this.keys.get(0));
+  }
+
+  /**
+   * Restores the min-heap invariant by percolating the key at the given index down.
+   *
+   * @param i index of the key in the heap to percolate downwards
+   */
+  private void percolateDown(int i) {
+    long key = this.keys.get(i);
+    int child;
+    while ((child = i * 2 + 1) < this.size) {
+      if (child + 1 < this.size && this.keys.get(child + 1) < this.keys.get(child)) {
+        child++;
+      }
+      if (this.keys.get(child) >= key) {
+        break;
+      }
+      this.keys.put(i, this.keys.get(child));
+      i = child;
+    }
+    this.keys.put(i, key);
+  }
+
+  /**
+   * Restores the min-heap invariant by percolating the key at the given index up.
+   *
+   * @param i index of the key in the heap to percolate upwards
+   */
+  private void percolateUp(int i) {
+    long key = this.keys.get(i);
+    while (i != 0) {
+      int parent = (i - 1) / 2;
+      if (this.keys.get(parent) <= key) {
+        break;
+      }
+      this.keys.put(i, this.keys.get(parent));
+      i = parent;
+    }
+    this.keys.put(i, key);
+  }
+
+  /**
+   * Appends the record of the given Application to the arena, making room first if needed.
+   *
+   * @param o the Application to write
+   * @return the key of the Application
+   */
+  private long write(Application o) {
+    byte[] name = o.getName().getBytes(StandardCharsets.UTF_8);
+    byte[] email = o.getEmail().getBytes(StandardCharsets.UTF_8);
+    int length = 2 * Integer.BYTES + name.length + email.length;
+
+    if (length > this.arena.capacity() - this.arenaEnd) {
+      compact(length);
+    }
+
+    int offset = this.arenaEnd;
+    this.arena.putInt(offset, name.length);
+    this.arena.put(offset + Integer.BYTES, name);
+    this.arena.putInt(offset + Integer.BYTES + name.length, email.length);
+    this.arena.put(offset + 2 * Integer.BYTES + name.length, email);
+    this.arenaEnd += length;
+    this.liveBytes += length;
+
+    return ((long) o.getScore() << 32) | offset;
+  }
+
+  /**
+   * Copies the records referenced by the heap into a new arena, leaving room for at least the
+   * given number of bytes, and updates the keys with the new offsets.
+   *
+   * @param needed the number of bytes to leave at the end of the new arena
+   * @throws IllegalStateException if the records do not fit in a direct buffer
+   */
+  private void compact(int needed) {
+    long length = Math.max(this.arena.capacity(), this.liveBytes + needed);
+    if (this.liveBytes * 2 > this.arena.capacity()) {
+      length = Math.max(length, 2L * this.arena.capacity());
+    }
+    if (this.liveBytes + needed > Integer.MAX_VALUE) {
+      throw new IllegalStateException("arena is full");
+    }
+
+    ByteBuffer compacted = ByteBuffer.allocateDirect((int) Math.min(length, Integer.MAX_VALUE));
+    int end = 0;
+    for (int i = 0; i < this.size; i++) {
+      long key = this.keys.get(i);
+      int recordLength = recordLength(key);
+      compacted.put(end, this.arena, offset(key), recordLength);
+      // records are copied in heap order, so a parent still has a lower offset than its children
+      this.keys.put(i, (key & 0xFFFFFFFF00000000L) | end);
+      end += recordLength;
+    }
+
+    this.arena = compacted;
+    this.arenaEnd = end;
+  }
+
+  /**
+   * Creates a new Application from the record referenced by the given key.
+   *
+   * @param key the key of an Application of the heap
+   * @return a new Application with the name, email and score of the record
+   */
+  private Application read(long key) {
+    int offset = offset(key);
+    int nameLength = this.arena.getInt(offset);
+    String name = readString(offset + Integer.BYTES, nameLength);
+    int emailOffset = offset + Integer.BYTES + nameLength;
+    String email = readString(emailOffset + Integer.BYTES, this.arena.getInt(emailOffset));
+    return new Application(name, email, score(key));
+  }
+
+  /**
+   * Decodes an UTF-8 string of the arena.
+   *
+   * @param offset the offset of the first byte of the string
+   * @param length the number of bytes of the string
+   * @return the decoded string
+   */
+  private String readString(int offset, int length) {
+    if (this.scratch.length < length) {
+      this.scratch = new byte[Math.max(length, this.scratch.length * 2)];
+    }
+    this.arena.get(offset, this.scratch, 0, length);
+    return new String(this.scratch, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Returns the number of bytes of the record referenced by the given key.
+   *
+   * @param key the key of an Application of the heap
+   * @return the length of its record
+   */
+  private int recordLength(long key) {
+    int offset = offset(key);
+    int nameLength = this.arena.getInt(offset);
+    int emailLength = this.arena.getInt(offset + Integer.BYTES + nameLength);
+    return 2 * Integer.BYTES + nameLength + emailLength;
+  }
+
+  /**
+   * Returns the score stored in the given key
+   *
+   * @param key the key of an Application
+   * @return the score of the Application
+   */
+  private static int score(long key) {
+    return (int) (key >>> 32);
+  }
+
+  /**
+   * Returns the record offset stored in the given key
+   *
+   * @param key the key of an Application
+   * @return the offset of the record of the Application in the arena
+   */
+  private static int offset(long key) {
+    return (int) key;
+  }
+
+  /**
+   * Returns a String representing this OffHeapApplicationQueue, where each element (application)
+   * of the queue is listed on a separate line, in order from the lowest score to the highest
+   * score.
+   *
+   * @see Application#toString()
+   * @return a String representing this OffHeapApplicationQueue
+   */
+  @Override
+  public String toString() {
+    StringBuilder val = new StringBuilder();
+
+    for (Application a : this) {
+      val.append(a).append("\n");
+    }
+
+    return val.toString();
+  }
+
+  /**
+   * Returns an Iterator for this OffHeapApplicationQueue which proceeds from the lowest-scored to
+   * the highest-scored Application. Like ApplicationIterator, it walks the heap lazily with a
+   * frontier of indices, and only creates the Applications it returns. The queue must not be
+   * modified during the iteration.
+   *
+   * @return an Iterator for this OffHeapApplicationQueue
+   */
+  @Override
+  public Iterator<Application> iterator() {
+    return new KeyIterator();
+  }
+
+  /**
+   * Iterates over the heap lazily, keeping a min-heap of the keys which may come next.
+   */
+  private class KeyIterator implements Iterator<Application> {
+    private final int expectedModCount = modCount; // modification count when this was created
+    private long[] frontier = new long[8]; // min-heap of the keys which may be returned next
+    private int[] indexes = new int[8]; // indexes[j] is the heap index of frontier[j]
+    private int frontierSize; // number of keys in the frontier
+
+    private KeyIterator() {
+      if (size != 0) {
+        push(0);
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.frontierSize != 0;
+    }
+
+    @Override
+    public Application next() {
+      if (!hasNext())
+        throw new NoSuchElementException("No more elements in this iteration");
+      if (modCount != this.expectedModCount)
+        throw new ConcurrentModificationException("the queue was modified during the iteration");
+
+      long key = this.frontier[0];
+      int index = this.indexes[0];
+
+      // remove the root of the frontier
+      this.frontierSize--;
+      long last = this.frontier[this.frontierSize];
+      int lastIndex = this.indexes[this.frontierSize];
+      int i = 0;
+      int child;
+      while ((child = i * 2 + 1) < this.frontierSize) {
+        if (child + 1 < this.frontierSize && this.frontier[child + 1] < this.frontier[child]) {
+          child++;
+        }
+        if (this.frontier[child] >= last) {
+          break;
+        }
+        this.frontier[i] = this.frontier[child];
+        this.indexes[i] = this.indexes[child];
+        i = child;
+      }
+      this.frontier[i] = last;
+      this.indexes[i] = lastIndex;
+
+      // its children may now be returned
+      int first = index * 2 + 1;
+      if (first < size) {
+        push(first);
+        if (first + 1 < size) {
+          push(first + 1);
+        }
+      }
+
+      return read(key);
+    }
+
+    /**
+     * Adds the key at the given heap index to the frontier
+     *
+     * @param index the heap index of a key
+     */
+    private void push(int index) {
+      if (this.frontierSize == this.frontier.length) {
+        this.frontier = Arrays.copyOf(this.frontier, this.frontierSize * 2);
+        this.indexes = Arrays.copyOf(this.indexes, this.frontierSize * 2);
+      }
+
+      long key = keys.get(index);
+      int i = this.frontierSize++;
+      while (i > 0) {
+        int parent = (i - 1) / 2;
+        if (this.frontier[parent] <= key) {
+          break;
+        }
+        this.frontier[i] = this.frontier[parent];
+        this.indexes[i] = this.indexes[parent];
+        i = parent;
+      }
+      this.frontier[i] = key;
+      this.indexes[i] = index;
+    }
+  }
+}
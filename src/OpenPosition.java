@@ -3,14 +3,32 @@
 // Title: OpenPosition.java
 ///////////////////////////////////////////////////////////////////////////////
 
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+
 /**
  * A application handler of an open position using priority queue. Only saves a new Application when
  * the queue is not full, or when it can replace older, lower-scored ones with its higher scores.
  */
 public class OpenPosition {
   private String positionName;
-  private ApplicationQueue applications; // the priority queue of all applications
+  private PriorityQueueADT<Application> applications; // the priority queue of all applications
   private int capacity; // the number of vacancies
+  private final DuplicateEmailFilter submitted; // emails already submitted, null if not filtered
+  private PositionJournal journal; // records the changes of this position, null if not journaled
+  private final PositionMetrics metrics; // null unless instrumented
+  private PositionView view; // the view of the current state, null until taken or after a change
+
+  // running aggregates of the admitted applications, updated by add()
+  private long totalScore; // sum of the scores of the admitted applications
+  private final int[] scoreCounts; // scoreCounts[s] counts the admitted applications scoring s
+  private int minScore; // lowest admitted score, Application.MAX_SCORE + 1 if none
+  private int maxScore; // highest admitted score, Application.MIN_SCORE - 1 if none
+  private final int[] scoreTree; // Fenwick tree of scoreCounts, scoreTree[0] unused
 
   /**
    * Creates a new open position with the given capacity
@@ -20,16 +38,184 @@ public class OpenPosition {
    *                                  positive integer
    */
   public OpenPosition(String positionName, int capacity) {
+    this(positionName, capacity, newApplicationQueue(capacity));
+    measureQueue();
+  }
+
+  /**
+   * Creates a new open position with the given capacity, storing its applications in the given
+   * priority queue. For instance, a BucketApplicationQueue makes add() run in constant time.
+   * 
+   * @param capacity     the number of vacancies of this position
+   * @param applications an empty priority queue able to hold at least capacity applications
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer or if the given queue is not empty
+   * @throws NullPointerException     if the given queue is null
+   */
+  public OpenPosition(String positionName, int capacity,
+      PriorityQueueADT<Application> applications) {
+    this(positionName, capacity, applications, null);
+  }
 
+  /**
+   * Creates a new open position with the given capacity, storing its applications in the given
+   * priority queue, and which rejects any Application whose email was already submitted to it.
+   * 
+   * @param capacity     the number of vacancies of this position
+   * @param applications an empty priority queue able to hold at least capacity applications
+   * @param submitted    records the submitted emails, or null to accept duplicates
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer or if the given queue is not empty
+   * @throws NullPointerException     if the given queue is null
+   */
+  public OpenPosition(String positionName, int capacity,
+      PriorityQueueADT<Application> applications, DuplicateEmailFilter submitted) {
+    this(positionName, capacity, applications, submitted, PositionMetrics.ENABLED);
+  }
+
+  /**
+   * Creates a new open position with the given capacity, storing its applications in the given
+   * priority queue, which has metrics if instrumented is true. The given queue is not modified:
+   * only a queue created by this position records its percolations, through measureQueue().
+   * 
+   * @param capacity     the number of vacancies of this position
+   * @param applications an empty priority queue able to hold at least capacity applications
+   * @param submitted    records the submitted emails, or null to accept duplicates
+   * @param instrumented whether this position records its metrics, PositionMetrics.ENABLED by
+   *                     default
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer or if the given queue is not empty
+   * @throws NullPointerException     if the given queue is null
+   */
+  OpenPosition(String positionName, int capacity, PriorityQueueADT<Application> applications,
+      DuplicateEmailFilter submitted, boolean instrumented) {
 
     if (capacity <= 0) {
       throw new IllegalArgumentException("capacity is invalid");
+    }
 
+    if (applications == null) {
+      throw new NullPointerException("the given queue is null");
     }
 
-    this.applications = new ApplicationQueue(capacity);
+    if (!applications.isEmpty()) {
+      throw new IllegalArgumentException("the given queue is not empty");
+    }
+
+    this.applications = applications;
     this.positionName = positionName;
     this.capacity = capacity;
+    this.submitted = submitted;
+    this.metrics = instrumented ? new PositionMetrics(this) : null;
+    this.scoreCounts = new int[Application.MAX_SCORE - Application.MIN_SCORE + 1];
+    this.scoreTree = new int[Application.MAX_SCORE - Application.MIN_SCORE + 2];
+    this.minScore = Application.MAX_SCORE + 1;
+    this.maxScore = Application.MIN_SCORE - 1;
+  }
+
+  /**
+   * Creates a new open position with the given capacity, containing the Applications which would
+   * remain after adding each of the given Applications with add(). Only the highest-scored
+   * Applications are selected, in O(n) time, and the priority queue is built bottom-up from them
+   * instead of adding every Application one by one.
+   * 
+   * @param positionName the name of this position
+   * @param capacity     the number of vacancies of this position
+   * @param applications the Applications to add to this position
+   * @return a new open position holding the highest-scored of the given Applications
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   * @throws NullPointerException     if the given array or one of its Applications is null
+   */
+  public static OpenPosition of(String positionName, int capacity, Application[] applications) {
+    ApplicationQueue queue = newApplicationQueue(capacity);
+    OpenPosition position = new OpenPosition(positionName, capacity, queue);
+    position.measureQueue();
+
+    Application[] selected = selectHighest(applications, capacity);
+    queue.enqueueAll(selected);
+    for (Application a : selected) {
+      position.admitted(a);
+    }
+    position.capacity = capacity - selected.length;
+
+    return position;
+  }
+
+  /**
+   * Creates a new open position with the given capacity, containing the Applications which would
+   * remain after adding each of the given Applications with add().
+   * 
+   * @see #of(String, int, Application[])
+   * @param positionName the name of this position
+   * @param capacity     the number of vacancies of this position
+   * @param applications the Applications to add to this position
+   * @return a new open position holding the highest-scored of the given Applications
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   * @throws NullPointerException     if the given collection or one of its Applications is null
+   */
+  public static OpenPosition of(String positionName, int capacity,
+      Collection<? extends Application> applications) {
+    return of(positionName, capacity, applications.toArray(new Application[0]));
+  }
+
+  /**
+   * Selects the count highest-scored of the given Applications in O(n) time. Since scores are in
+   * the 0 .. 100 range, a histogram of the scores gives the lowest selected score, and ties at
+   * that score are broken in favor of the first Applications of the array.
+   * 
+   * @param applications the Applications to select from
+   * @param count        the maximum number of Applications to select
+   * @return a new array containing the min(count, applications.length) selected Applications
+   * @throws NullPointerException if the given array or one of its Applications is null
+   */
+  static Application[] selectHighest(Application[] applications, int count) {
+    int[] scoreCounts = new int[Application.MAX_SCORE - Application.MIN_SCORE + 1];
+    for (Application a : applications) {
+      if (a == null) {
+        throw new NullPointerException("the given Application is null");
+      }
+      scoreCounts[a.getScore() - Application.MIN_SCORE]++;
+    }
+
+    if (applications.length <= count) {
+      return applications.clone(); // every application is selected
+    }
+
+    // find the lowest selected score, and how many applications having it are selected
+    int threshold = Application.MAX_SCORE;
+    int remaining = count;
+    while (scoreCounts[threshold - Application.MIN_SCORE] < remaining) {
+      remaining -= scoreCounts[threshold - Application.MIN_SCORE];
+      threshold--;
+    }
+
+    Application[] selected = new Application[count];
+    int size = 0;
+    for (Application a : applications) {
+      if (a.getScore() > threshold) {
+        selected[size++] = a;
+      } else if (a.getScore() == threshold && remaining > 0) {
+        selected[size++] = a;
+        remaining--;
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Creates the default priority queue of an open position with the given capacity
+   * 
+   * @param capacity the number of vacancies of the position
+   * @return a new empty ApplicationQueue
+   * @throws IllegalArgumentException if the capacity is not a positive integer
+   */
+  private static ApplicationQueue newApplicationQueue(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity is invalid");
+    }
+    return new ApplicationQueue(capacity);
   }
 
   public String getPositionName() {
@@ -38,29 +224,419 @@ public class OpenPosition {
 
   /**
    * Tries to add the given Application to the priority queue of this position. return False when
-   * the new Application has a lower score than the lowest-scored Application in the queue.
+   * the new Application has a lower score than the lowest-scored Application in the queue, or when
+   * duplicates are filtered and its email was already submitted, or when the queue is an
+   * IndexedApplicationQueue already holding its email.
    * 
    * @return Whether the given Application was added successfully
    */
   public boolean add(Application application) {
+    if (this.metrics == null) {
+      return offer(application);
+    }
+
+    long start = System.nanoTime();
+    boolean added = offer(application);
+    this.metrics.recordAdd(System.nanoTime() - start);
+    return added;
+  }
+
+  /**
+   * Tries to add the given Application to the priority queue of this position, as add() does
+   * without being timed.
+   * 
+   * @return Whether the given Application was added successfully
+   */
+  private boolean offer(Application application) {
+
+    if ((submitted != null && !submitted.add(application.getEmail()))
+        || this.applications.isDuplicate(application)) {
+      record(PositionJournal.REJECT, application);
+      return false; // duplicate
+    }
 
     if (capacity == 0) {
-      if (this.applications.peek().compareTo(application) < 0) {
-        this.applications.dequeue();
-        this.applications.enqueue(application);
+      if (this.minScore < application.getScore()) {
+        Application evicted = this.applications.replaceTop(application);
+        removed(evicted);
+        admitted(application);
+        record(PositionJournal.ADMIT, application);
+        record(PositionJournal.EVICT, evicted);
         return true;
       }else {
+      record(PositionJournal.REJECT, application);
       return false;
       }
     } else { // there is room
       
         applications.enqueue(application);
+        admitted(application);
         capacity = capacity - 1; // capacity changed
+        record(PositionJournal.ADMIT, application);
         return true;
      
     }
   }
 
+  /**
+   * Adds the given Applications to this position, in order, with the same outcome as calling add()
+   * for each of them. Once this position is full, the admission threshold (the lowest admitted
+   * score) is read once and only refreshed when an Application beats it, so that the Applications
+   * which do not qualify are rejected by a single score comparison. If an Application is null, the
+   * Applications before it remain added.
+   * 
+   * @param applications the Applications to add
+   * @return the number of admitted, rejected and evicted Applications
+   * @throws NullPointerException if the given Iterable or one of its Applications is null
+   */
+  public BatchResult addAll(Iterable<? extends Application> applications) {
+    int admitted = 0;
+    int rejected = 0;
+    int evicted = 0;
+    // lowest admitted score once this position is full
+    int threshold = capacity == 0 ? this.minScore : Application.MIN_SCORE - 1;
+
+    for (Application a : applications) {
+      if ((submitted != null && !submitted.add(a.getEmail()))
+          || this.applications.isDuplicate(a)) {
+        record(PositionJournal.REJECT, a);
+        rejected++; // duplicate
+      } else if (capacity != 0) { // there is room
+        this.applications.enqueue(a);
+        admitted(a);
+        capacity = capacity - 1; // capacity changed
+        record(PositionJournal.ADMIT, a);
+        admitted++;
+        if (capacity == 0) {
+          threshold = this.minScore;
+        }
+      } else if (a.getScore() <= threshold) {
+        record(PositionJournal.REJECT, a);
+        rejected++;
+      } else {
+        Application removed = this.applications.replaceTop(a);
+        removed(removed);
+        admitted(a);
+        record(PositionJournal.ADMIT, a);
+        record(PositionJournal.EVICT, removed);
+        admitted++;
+        evicted++;
+        threshold = this.minScore;
+      }
+    }
+
+    return new BatchResult(admitted, rejected, evicted);
+  }
+
+  /**
+   * Adds the given Applications to this position, in order, with the same outcome as calling add()
+   * for each of them.
+   * 
+   * @see #addAll(Iterable)
+   * @param applications the Applications to add
+   * @return the number of admitted, rejected and evicted Applications
+   * @throws NullPointerException if the given array or one of its Applications is null
+   */
+  public BatchResult addAll(Application[] applications) {
+    return addAll(Arrays.asList(applications));
+  }
+
+  /**
+   * Withdraws the Application having the given email from this position, which frees its vacancy.
+   * Requires the Applications of this position to be stored in an IndexedApplicationQueue, which
+   * finds and removes the Application in O(log n) time.
+   *
+   * @param email the email of the withdrawing applicant
+   * @return Whether an Application having this email was withdrawn
+   * @throws UnsupportedOperationException if the priority queue of this position is not an
+   *                                       IndexedApplicationQueue
+   */
+  public boolean withdraw(String email) {
+    Application withdrawn = indexedApplications().remove(email);
+    if (withdrawn == null) {
+      return false;
+    }
+
+    removed(withdrawn);
+    capacity = capacity + 1; // a vacancy is free again
+    record(PositionJournal.WITHDRAW, withdrawn);
+    return true;
+  }
+
+  /**
+   * Changes the score of the admitted Application having the given email. Requires the
+   * Applications of this position to be stored in an IndexedApplicationQueue, which finds and
+   * re-scores the Application in O(log n) time. The Application stays admitted even if its new
+   * score is lower than the scores of rejected Applications.
+   *
+   * @param email    the email of the re-scored applicant
+   * @param newScore the new score of this applicant
+   * @return Whether an Application having this email was re-scored
+   * @throws IllegalArgumentException      if the new score is not in the 0 .. 100 range
+   * @throws UnsupportedOperationException if the priority queue of this position is not an
+   *                                       IndexedApplicationQueue
+   */
+  public boolean rescore(String email, int newScore) {
+    IndexedApplicationQueue indexed = indexedApplications();
+    Application old = indexed.updateScore(email, newScore);
+    if (old == null) {
+      return false;
+    }
+
+    Application rescored = indexed.get(email);
+    removed(old);
+    admitted(rescored);
+    record(PositionJournal.RESCORE, rescored);
+    return true;
+  }
+
+  /**
+   * Makes this position record its changes in the given journal: every admitted, evicted,
+   * rejected, withdrawn and re-scored Application. Recording an entry only encodes it into a
+   * buffer, which is committed to the journal file in the background.
+   *
+   * @param journal the journal to record the changes in, or null to stop recording them
+   */
+  public void setJournal(PositionJournal journal) {
+    this.journal = journal;
+  }
+
+  /**
+   * Records a change of this position in its journal and its metrics, if it has them
+   *
+   * @param type        the type of the change, such as PositionJournal.ADMIT
+   * @param application the Application of the change
+   */
+  private void record(int type, Application application) {
+    if (this.journal != null) {
+      this.journal.record(type, application);
+    }
+    if (this.metrics != null) {
+      this.metrics.record(type);
+    }
+  }
+
+  /**
+   * Returns the duplicate filter of this position
+   *
+   * @return the filter recording the submitted emails, or null if duplicates are accepted
+   */
+  DuplicateEmailFilter getFilter() {
+    return this.submitted;
+  }
+
+  /**
+   * Checks whether rejecting an Application changes this position, by recording its email in the
+   * duplicate filter or by recording a REJECT entry in the journal. Such rejections must go
+   * through add() rather than being decided from the threshold alone.
+   *
+   * @return {@code true} if this position filters duplicates or has a journal
+   */
+  boolean recordsRejections() {
+    return this.submitted != null || this.journal != null;
+  }
+
+  /**
+   * Returns the metrics of this position
+   *
+   * @return the metrics of this position, or null unless PositionMetrics.ENABLED
+   */
+  public PositionMetrics getMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Makes the ApplicationQueue of this position record its percolations in the metrics of this
+   * position. Only called for a queue created by this position, so that a queue given by a caller
+   * is never modified.
+   */
+  void measureQueue() {
+    if (this.metrics != null && this.applications instanceof ApplicationQueue) {
+      ((ApplicationQueue) this.applications).metrics = this.metrics;
+    }
+  }
+
+  /**
+   * Returns the score an Application must beat to be admitted, without synchronization
+   *
+   * @return the lowest admitted score if this position is full, Application.MIN_SCORE - 1
+   *         otherwise
+   */
+  int getThreshold() {
+    return capacity == 0 ? this.minScore : Application.MIN_SCORE - 1;
+  }
+
+  /**
+   * Returns the priority queue of this position, if it can find Applications by email
+   *
+   * @return the IndexedApplicationQueue of this position
+   * @throws UnsupportedOperationException if the priority queue of this position is not an
+   *                                       IndexedApplicationQueue
+   */
+  private IndexedApplicationQueue indexedApplications() {
+    if (!(this.applications instanceof IndexedApplicationQueue)) {
+      throw new UnsupportedOperationException("applications are not indexed by email");
+    }
+    return (IndexedApplicationQueue) this.applications;
+  }
+
+  /**
+   * Returns the number of vacancies of this position, taken or not
+   * 
+   * @return the capacity this position was created with
+   */
+  int getCapacity() {
+    return this.capacity + this.applications.size();
+  }
+
+  /**
+   * Returns the priority queue storing the Applications of this position, which must not be
+   * modified
+   * 
+   * @return the priority queue of this position
+   */
+  PriorityQueueADT<Application> getQueue() {
+    return this.applications;
+  }
+
+  /**
+   * Appends the given Application to the priority queue of this position with appendStored(), as
+   * when restoring Applications saved in the stored order of the queue. Neither the duplicate
+   * filter nor the journal see the Application.
+   * 
+   * @param application the Application to admit
+   * @throws IllegalStateException if this position is full, or if the Application does not follow
+   *                               the stored order of the queue, or if an
+   *                               IndexedApplicationQueue already holds its email
+   */
+  void appendStored(Application application) {
+    if (capacity == 0) {
+      throw new IllegalStateException("position is full");
+    }
+    this.applications.appendStored(application);
+    admitted(application);
+    capacity = capacity - 1; // capacity changed
+  }
+
+  /**
+   * Checks whether all the vacancies of this position are taken, in which case an Application is
+   * only added if it beats the lowest admitted score.
+   * 
+   * @return {@code true} if this position is full
+   */
+  public boolean isFull() {
+    return capacity == 0;
+  }
+
+  /**
+   * Updates the running aggregates after the given Application was added to the priority queue,
+   * and forgets the view of the previous state.
+   * 
+   * @param application the admitted Application
+   */
+  private void admitted(Application application) {
+    int score = application.getScore();
+
+    this.view = null;
+    this.totalScore += score;
+    this.scoreCounts[score - Application.MIN_SCORE]++;
+    updateScoreTree(score, 1);
+
+    if (score < this.minScore) {
+      this.minScore = score;
+    }
+    if (score > this.maxScore) {
+      this.maxScore = score;
+    }
+  }
+
+  /**
+   * Updates the running aggregates after the given Application was removed from the priority
+   * queue, and forgets the view of the previous state. Moving the min and max cursors scans at
+   * most Application.MAX_SCORE + 1 slots.
+   * 
+   * @param application the removed Application
+   */
+  private void removed(Application application) {
+    int score = application.getScore();
+
+    this.view = null;
+    this.totalScore -= score;
+    updateScoreTree(score, -1);
+    if (--this.scoreCounts[score - Application.MIN_SCORE] != 0) {
+      return; // other applications still have this score
+    }
+
+    if (this.minScore == this.maxScore) { // no more applications
+      this.minScore = Application.MAX_SCORE + 1;
+      this.maxScore = Application.MIN_SCORE - 1;
+    } else if (score == this.minScore) {
+      do {
+        this.minScore++;
+      } while (this.scoreCounts[this.minScore - Application.MIN_SCORE] == 0);
+    } else if (score == this.maxScore) {
+      do {
+        this.maxScore--;
+      } while (this.scoreCounts[this.maxScore - Application.MIN_SCORE] == 0);
+    }
+  }
+
+  /**
+   * Adds the given delta to the count of the given score in the Fenwick tree
+   * 
+   * @param score a score in the Application.MIN_SCORE .. Application.MAX_SCORE range
+   * @param delta 1 when an Application having this score was admitted, -1 when one was removed
+   */
+  private void updateScoreTree(int score, int delta) {
+    for (int i = score - Application.MIN_SCORE + 1; i < this.scoreTree.length; i += i & -i) {
+      this.scoreTree[i] += delta;
+    }
+  }
+
+  /**
+   * Returns the number of admitted Applications scoring less than the given score, summing at most
+   * log2(101) nodes of the Fenwick tree
+   * 
+   * @param score any score
+   * @return the number of Applications in the priority queue scoring less than score
+   */
+  private int countBelow(int score) {
+    int count = 0;
+    int i = Math.max(Math.min(score, Application.MAX_SCORE + 1), Application.MIN_SCORE)
+        - Application.MIN_SCORE;
+    for (; i > 0; i -= i & -i) {
+      count += this.scoreTree[i];
+    }
+    return count;
+  }
+
+  /**
+   * Returns an immutable view of the current state of this position, which readers can use while
+   * this position keeps changing. The view shares the heap of this position, which is only copied
+   * if this position changes afterwards, and the same view is returned until this position
+   * changes: taking many views costs close to nothing. With a priority queue other than an
+   * ApplicationQueue, its Applications are copied once per change.
+   * 
+   * @return an immutable view of the current state of this position
+   */
+  public PositionView snapshot() {
+    if (this.view == null) {
+      ApplicationQueue frozen;
+      if (this.applications instanceof ApplicationQueue) {
+        frozen = ((ApplicationQueue) this.applications).deepCopy();
+      } else {
+        // iteration order, from the lowest to the highest score, is a valid heap
+        frozen = new ApplicationQueue(Math.max(1, this.applications.size()));
+        for (Application a : this.applications) {
+          frozen.appendHeapOrdered(a);
+        }
+      }
+      this.view = new PositionView(this.positionName, getCapacity(), frozen, this.totalScore,
+          this.minScore, this.maxScore, this.scoreCounts.clone());
+    }
+    return this.view;
+  }
+
   /**
    * Returns the list of Applications in the priority queue.
    * 
@@ -71,25 +647,233 @@ public class OpenPosition {
   }
 
   /**
-   * Returns the total score of Applications in the priority queue.
+   * Writes the Applications of this position to the given Appendable, such as a Writer, one line
+   * per Application in increasing order of the scores, in the format of getApplications(). With an
+   * ApplicationQueue, the Applications are streamed one score at a time in constant memory, and
+   * Applications having the same score are written in the order of sortedArray(). Other queues
+   * are written in their iteration order, using the memory of their iterator.
+   * 
+   * @param out where to write the Applications
+   * @throws IOException if the Appendable cannot be written
+   */
+  public void exportApplications(Appendable out) throws IOException {
+    ShortlistExporter.export(this.applications.exportOrder(), out);
+  }
+
+  /**
+   * Writes the Applications of this position to the given channel, UTF-8 encoded, one line per
+   * Application in increasing order of the scores, in the format of exportApplications(Appendable),
+   * using the same memory.
+   * 
+   * @param channel where to write the Applications
+   * @throws IOException if the channel cannot be written
+   */
+  public void exportApplications(WritableByteChannel channel) throws IOException {
+    ShortlistExporter.export(this.applications.exportOrder(), channel);
+  }
+
+  /**
+   * Returns a page of the Applications of this position in increasing order of the scores. Pages
+   * stay consistent with each other only while this position does not change: page a snapshot()
+   * to avoid it. Pages are read lazily in iteration order, as getApplications() lists them: with
+   * an ApplicationQueue, in O(k log k) time for k = offset + limit, whatever the size of the queue.
+   * Applications having the same score may then be in another order than in exportApplications().
+   * 
+   * @param offset the number of lowest-scored Applications to skip
+   * @param limit  the maximum number of Applications to return
+   * @return a new list of at most limit Applications
+   * @throws IllegalArgumentException if the offset or the limit is negative
+   */
+  public List<Application> getApplications(int offset, int limit) {
+    return ShortlistExporter.page(this.applications, offset, limit);
+  }
+
+  /**
+   * Returns a new array containing the Applications of this position in increasing order of the
+   * scores, copied from sortedList()
+   * 
+   * @return a new array of the Applications of this position, from the lowest-scored to the
+   *         highest-scored
+   */
+  public Application[] sortedArray() {
+    return sortedList().toArray(new Application[0]);
+  }
+
+  /**
+   * Returns an unmodifiable list of the Applications of this position in increasing order of the
+   * scores, sorted in O(n) time by counting sort when the Applications are stored in an
+   * ApplicationQueue. Other queues already iterate in increasing order of the scores.
+   * 
+   * @return a new unmodifiable list of the Applications of this position, from the lowest-scored
+   *         to the highest-scored
+   */
+  public List<Application> sortedList() {
+    return this.applications.sortedList();
+  }
+
+  /**
+   * Returns the n highest-scored Applications of this position. With a MinMaxApplicationQueue,
+   * they are read from the max levels of the heap in O(n log n) time, without scanning or copying
+   * the queue. Other queues are sorted first.
+   *
+   * @param n the number of Applications to return
+   * @return a new list of the min(n, getApplicationCount()) highest-scored Applications, in
+   *         decreasing order of the scores
+   * @throws IllegalArgumentException if n is negative
+   */
+  public List<Application> topCandidates(int n) {
+    return this.applications.topCandidates(n);
+  }
+
+  /**
+   * Returns the total score of Applications in the priority queue. This running total is kept up
+   * to date by add(), so this method runs in constant time.
    * 
    * @return The total score of Applications in the priority queue.
    */
-  public int getTotalScore() {
+  public long getTotalScore() {
+    return this.totalScore;
+  }
+
+  /**
+   * Returns the number of Applications in the priority queue.
+   * 
+   * @return The number of Applications in the priority queue.
+   */
+  public int getApplicationCount() {
+    return this.applications.size();
+  }
+
+  /**
+   * Returns the lowest score of the Applications in the priority queue.
+   * 
+   * @return The lowest score of the Applications in the priority queue.
+   * @throws NoSuchElementException if there is no Application in the priority queue
+   */
+  public int getMinScore() {
+    if (this.applications.isEmpty()) {
+      throw new NoSuchElementException("no application in this position");
+    }
+    return this.minScore;
+  }
+
+  /**
+   * Returns the highest score of the Applications in the priority queue.
+   * 
+   * @return The highest score of the Applications in the priority queue.
+   * @throws NoSuchElementException if there is no Application in the priority queue
+   */
+  public int getMaxScore() {
+    if (this.applications.isEmpty()) {
+      throw new NoSuchElementException("no application in this position");
+    }
+    return this.maxScore;
+  }
+
+  /**
+   * Returns the mean score of the Applications in the priority queue.
+   * 
+   * @return The mean score of the Applications in the priority queue, 0 if there is none.
+   */
+  public double getMeanScore() {
+    if (this.applications.isEmpty()) {
+      return 0;
+    }
+    return (double) this.totalScore / this.applications.size();
+  }
 
-    int total = 0;
-    ApplicationQueue newApplications = this.applications.deepCopy();
-    
-    //while(!newApplications.isEmpty()) {
-    //  total = total + newApplications.dequeue().getScore();
-    //}
-    
-    for(Application a : newApplications) {
-      total = total + a.getScore();
+  /**
+   * Returns the number of Applications in the priority queue having the given score.
+   * 
+   * @param score a score in the Application.MIN_SCORE .. Application.MAX_SCORE range
+   * @return The number of Applications in the priority queue having the given score.
+   * @throws IllegalArgumentException if score is not in the 0 .. 100 range
+   */
+  public int getScoreCount(int score) {
+    if (score > Application.MAX_SCORE || score < Application.MIN_SCORE) {
+      throw new IllegalArgumentException("provided score is not in the 0 .. 100 range");
     }
+    return this.scoreCounts[score - Application.MIN_SCORE];
+  }
+
+  /**
+   * Returns a copy of the score histogram of the Applications in the priority queue, where the
+   * element at index s is the number of Applications having score Application.MIN_SCORE + s. Use
+   * getScoreCount() to read the histogram without allocating.
+   * 
+   * @return a copy of the score histogram of the Applications in the priority queue
+   */
+  public int[] getScoreHistogram() {
+    return this.scoreCounts.clone();
+  }
 
-    return total;
+  /**
+   * Returns the number of Applications in the priority queue scoring at least the given score, in
+   * O(log 101) time.
+   * 
+   * @param score any score, such as a threshold
+   * @return The number of Applications in the priority queue scoring score or more.
+   */
+  public int countAtLeast(int score) {
+    return this.applications.size() - countBelow(score);
   }
 
+  /**
+   * Returns the rank an Application having the given score has among the Applications in the
+   * priority queue, in O(log 101) time. Applications having the same score share the same rank.
+   * 
+   * @param score any score
+   * @return 1 plus the number of Applications in the priority queue scoring more than score
+   */
+  public int getRank(int score) {
+    if (score >= Application.MAX_SCORE) {
+      return 1;
+    }
+    return this.applications.size() - countBelow(score + 1) + 1;
+  }
+
+  /**
+   * Returns the percentile of the given score among the Applications in the priority queue, in
+   * O(log 101) time.
+   * 
+   * @param score any score
+   * @return The percentage of the Applications in the priority queue scoring less than score, 0 if
+   *         there is none.
+   */
+  public double getPercentile(int score) {
+    if (this.applications.isEmpty()) {
+      return 0;
+    }
+    return 100.0 * countBelow(score) / this.applications.size();
+  }
+
+  /**
+   * Returns the score of the n-th best Application in the priority queue, in O(log 101) time, by
+   * descending the Fenwick tree to the lowest score having enough Applications at or below it.
+   * 
+   * @param n the rank of the Application, 1 for the highest-scored one
+   * @return The score of the n-th highest-scored Application in the priority queue.
+   * @throws IllegalArgumentException if n is not positive
+   * @throws NoSuchElementException   if there are less than n Applications in the priority queue
+   */
+  public int selectNthBest(int n) {
+    if (n <= 0) {
+      throw new IllegalArgumentException("rank is invalid");
+    }
+    if (n > this.applications.size()) {
+      throw new NoSuchElementException("less than " + n + " applications in this position");
+    }
+
+    // the n-th best is the k-th lowest: find the last node whose prefix count is below k
+    int k = this.applications.size() - n + 1;
+    int i = 0;
+    for (int step = Integer.highestOneBit(this.scoreTree.length - 1); step != 0; step >>= 1) {
+      if (i + step < this.scoreTree.length && this.scoreTree[i + step] < k) {
+        i += step;
+        k -= this.scoreTree[i];
+      }
+    }
+    return i + Application.MIN_SCORE; // the 1-based node i + 1 holds score i + MIN_SCORE
+  }
 
 }
@@ -3,7 +3,31 @@
 // Title: OpenPositionTester.java
 ///////////////////////////////////////////////////////////////////////////////
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 /**
  * This class implements unit test methods to check the correctness of Application,
@@ -400,6 +424,2014 @@ public class OpenPositionTester {
     return true; // passed
   }
 
+  /**
+   * This method checks that the ApplicationIterator returns the elements of a large queue in order
+   * of increasing score, without modifying the queue, and that it detects a modification of the
+   * queue during the iteration.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testApplicationIteratorOrder() {
+
+    try {
+      Random random = new Random(42);
+      ApplicationQueue applicationQueue = new ApplicationQueue(1000);
+      for (Application application : newApplications(1000, random)) {
+        applicationQueue.enqueue(application);
+      }
+
+      // iterate over the whole queue in order of increasing score
+      int count = 0;
+      int previous = -1;
+      for (Application a : applicationQueue) {
+        if (a.getScore() < previous) {
+          return false;
+        }
+        previous = a.getScore();
+        count++;
+      }
+
+      if (count != 1000 || applicationQueue.size() != 1000) {
+        return false;
+      }
+
+      // the first element of the iteration is the root of the queue
+      Iterator<Application> iterator = applicationQueue.iterator();
+      if (!iterator.next().equals(applicationQueue.peek())) {
+        return false;
+      }
+
+      // modifying the queue invalidates the iterator
+      applicationQueue.dequeue();
+      try {
+        iterator.next();
+        return false;
+      } catch (ConcurrentModificationException e) {
+        // correct
+      }
+
+      // iterating over an empty queue
+      if (new ApplicationQueue(1).iterator().hasNext()) {
+        return false;
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method checks that the running aggregates of an OpenPosition (total, count, min, max,
+   * mean and histogram) match the Applications it holds while Applications are admitted and
+   * evicted.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testOpenPositionAggregates() {
+
+    try {
+      OpenPosition position = new OpenPosition("Programmer", 50);
+
+      // no application yet
+      if (position.getTotalScore() != 0 || position.getApplicationCount() != 0
+          || position.getMeanScore() != 0) {
+        return false;
+      }
+      try {
+        position.getMinScore();
+        return false;
+      } catch (NoSuchElementException e) {
+        // correct
+      }
+
+      Application[] applications = newApplications(2000, new Random(7));
+      for (int i = 0; i < applications.length; i++) {
+        position.add(applications[i]);
+
+        // compare with the aggregates computed from the applications every few additions
+        if (i % 97 == 0 || i > 1990) {
+          int total = 0;
+          int count = 0;
+          int min = Application.MAX_SCORE;
+          int max = Application.MIN_SCORE;
+          int[] histogram = new int[Application.MAX_SCORE + 1];
+          for (String line : position.getApplications().split("\n")) {
+            int score = Integer.parseInt(line.substring(line.lastIndexOf(':') + 1));
+            total += score;
+            count++;
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+            histogram[score]++;
+          }
+
+          if (position.getTotalScore() != total || position.getApplicationCount() != count
+              || position.getMinScore() != min || position.getMaxScore() != max
+              || position.getMeanScore() != (double) total / count
+              || !Arrays.equals(position.getScoreHistogram(), histogram)
+              || position.getScoreCount(max) != histogram[max]) {
+            return false;
+          }
+        }
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the replaceTop() and offer() methods of ApplicationQueue and
+   * BucketApplicationQueue.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testReplaceTopAndOffer() {
+
+    try {
+      List<PriorityQueueADT<Application>> queues =
+          List.of(new ApplicationQueue(3), new BucketApplicationQueue(3));
+
+      for (PriorityQueueADT<Application> queue : queues) {
+        Application application1 = new Application("Marin", "msuzuki@wisc.edu", 100);
+        Application application2 = new Application("Handsome", "handsome@wisc.edu", 50);
+        Application application3 = new Application("Nerd", "nerd@wisc.edu", 80);
+        Application application4 = new Application("Tallguy", "tallguy@wisc.edu", 30);
+        Application application5 = new Application("CuteGuy", "cute@wisc.edu", 90);
+
+        // replaceTop on an empty queue
+        try {
+          queue.replaceTop(application1);
+          return false;
+        } catch (NoSuchElementException e) {
+          // correct
+        }
+
+        // offer while there is room
+        if (queue.offer(application1) != null || queue.offer(application2) != null
+            || queue.offer(application3) != null) {
+          return false;
+        }
+
+        // offer a lower score to a full queue: not added
+        if (queue.offer(application4) != application4 || queue.size() != 3) {
+          return false;
+        }
+
+        // offer a higher score to a full queue: the lowest score is evicted
+        if (queue.offer(application5) != application2 || queue.size() != 3
+            || !queue.peek().equals(application3)) {
+          return false;
+        }
+
+        // replaceTop always replaces the root
+        if (queue.replaceTop(application4) != application3 || !queue.peek().equals(application4)) {
+          return false;
+        }
+
+        try {
+          queue.offer(null);
+          return false;
+        } catch (NullPointerException e) {
+          // correct
+        }
+
+        if (!queue.toString().trim().equals(
+            "Tallguy:tallguy@wisc.edu:30\nCuteGuy:cute@wisc.edu:90\nMarin:msuzuki@wisc.edu:100")) {
+          System.out.println(queue.toString().trim());
+          return false;
+        }
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the bulk constructor and the enqueueAll() method of
+   * ApplicationQueue, and of the OpenPosition.of() factory.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testBulkConstruction() {
+
+    try {
+      Random random = new Random(11);
+      Application[] applications = newApplications(500, random);
+
+      // build a heap bottom-up and drain it in order
+      ApplicationQueue queue = new ApplicationQueue(600, applications);
+      if (queue.size() != 500) {
+        return false;
+      }
+
+      // add a few more applications (percolated up) and many more (rebuilt bottom-up)
+      queue.enqueueAll(List.of(new Application("Marin", "msuzuki@wisc.edu", 0)));
+      queue.enqueueAll(Arrays.copyOf(applications, 99));
+      if (queue.size() != 600 || queue.peek().getScore() != 0) {
+        return false;
+      }
+
+      int previous = -1;
+      while (!queue.isEmpty()) {
+        int score = queue.dequeue().getScore();
+        if (score < previous) {
+          return false;
+        }
+        previous = score;
+      }
+
+      // more applications than the capacity, or a null application: the queue is unchanged
+      try {
+        queue.enqueueAll(Arrays.copyOf(applications, 601));
+        return false;
+      } catch (NullPointerException e) {
+        // correct
+      }
+      try {
+        new ApplicationQueue(10, applications);
+        return false;
+      } catch (IllegalStateException e) {
+        // correct
+      }
+      if (!queue.isEmpty()) {
+        return false;
+      }
+
+      // OpenPosition.of keeps the same applications as successive add()
+      for (int capacity : new int[] {1, 37, 500, 1000}) {
+        OpenPosition bulk = OpenPosition.of("Programmer", capacity, applications);
+        OpenPosition sequential = new OpenPosition("Programmer", capacity);
+        for (Application a : applications) {
+          sequential.add(a);
+        }
+
+        if (bulk.getTotalScore() != sequential.getTotalScore()
+            || bulk.getApplicationCount() != sequential.getApplicationCount()
+            || !Arrays.equals(bulk.getScoreHistogram(), sequential.getScoreHistogram())) {
+          return false;
+        }
+
+        // the position can still be used afterwards
+        Application best = new Application("Best", "best@wisc.edu", 100);
+        if (!bulk.add(best) || !bulk.getApplications().contains("Best:best@wisc.edu:100")) {
+          return false;
+        }
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the addAll() methods of OpenPosition, comparing them with
+   * successive calls to add().
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testAddAll() {
+
+    try {
+      Random random = new Random(13);
+      Application[] applications = newApplications(1000, random);
+
+      for (int capacity : new int[] {1, 20, 999, 1000, 2000}) {
+        OpenPosition batch = new OpenPosition("Programmer", capacity);
+        OpenPosition sequential = new OpenPosition("Programmer", capacity);
+
+        // add the first half one by one to both, then the second half as a batch
+        int admitted = 0;
+        int rejected = 0;
+        for (int i = 0; i < applications.length; i++) {
+          if (i < applications.length / 2) {
+            batch.add(applications[i]);
+          }
+          if (sequential.add(applications[i])) {
+            if (i >= applications.length / 2) {
+              admitted++;
+            }
+          } else if (i >= applications.length / 2) {
+            rejected++;
+          }
+        }
+        int before = batch.getApplicationCount();
+        BatchResult result =
+            batch.addAll(Arrays.copyOfRange(applications, applications.length / 2,
+                applications.length));
+
+        if (result.getAdmitted() != admitted || result.getRejected() != rejected
+            || result.getEvicted() != before + admitted - batch.getApplicationCount()
+            || batch.getTotalScore() != sequential.getTotalScore()
+            || !Arrays.equals(batch.getScoreHistogram(), sequential.getScoreHistogram())
+            || batch.isFull() != (capacity <= applications.length)) {
+          System.out.println(result);
+          return false;
+        }
+      }
+
+      // an empty batch changes nothing
+      OpenPosition position = new OpenPosition("Programmer", 3);
+      if (position.addAll(List.of()).getAdmitted() != 0 || position.getApplicationCount() != 0) {
+        return false;
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the ParallelShortlister class, comparing its result with
+   * successive calls to OpenPosition.add().
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testParallelShortlister() {
+
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      Random random = new Random(17);
+      Application[] applications = newApplications(100000, random);
+
+      for (int capacity : new int[] {1, 100, 20000, 200000}) {
+        OpenPosition parallel =
+            ParallelShortlister.shortlist("Programmer", capacity, applications, pool);
+        OpenPosition sequential = new OpenPosition("Programmer", capacity);
+        for (Application a : applications) {
+          sequential.add(a);
+        }
+
+        if (parallel.getTotalScore() != sequential.getTotalScore()
+            || parallel.getApplicationCount() != sequential.getApplicationCount()
+            || !Arrays.equals(parallel.getScoreHistogram(), sequential.getScoreHistogram())
+            || !parallel.getApplications().equals(sequential.getApplications())) {
+          return false;
+        }
+      }
+
+      // only 3 distinct scores: the tied Applications kept must be the ones add() keeps
+      Application[] tied = new Application[70000];
+      for (int i = 0; i < tied.length; i++) {
+        tied[i] = new Application("Applicant" + i, "applicant" + i + "@wisc.edu",
+            50 + random.nextInt(3));
+      }
+      for (int capacity : new int[] {1, 7, 1000, 30000, 69999}) {
+        OpenPosition parallel = ParallelShortlister.shortlist("Programmer", capacity, tied, pool);
+        OpenPosition sequential = new OpenPosition("Programmer", capacity);
+        for (Application a : tied) {
+          sequential.add(a);
+        }
+        if (!parallel.getApplications().equals(sequential.getApplications())) {
+          return false;
+        }
+      }
+
+      // no application at all
+      if (ParallelShortlister.shortlist("Programmer", 3, new Application[0], pool)
+          .getApplicationCount() != 0) {
+        return false;
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    } finally {
+      pool.shutdown();
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method stress tests the ConcurrentOpenPosition class by adding Applications from several
+   * threads at once, and compares the result with successive calls to OpenPosition.add().
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testConcurrentOpenPosition() {
+
+    try {
+      Random random = new Random(19);
+      Application[] applications = newApplications(200000, random);
+
+      ConcurrentOpenPosition concurrent = new ConcurrentOpenPosition("Programmer", 500);
+      OpenPosition sequential = new OpenPosition("Programmer", 500);
+      for (Application a : applications) {
+        sequential.add(a);
+      }
+
+      // every thread adds an interleaved slice, half of them one by one and half as batches
+      int threadCount = 8;
+      Thread[] threads = new Thread[threadCount];
+      for (int t = 0; t < threadCount; t++) {
+        int first = t;
+        threads[t] = new Thread(() -> {
+          if (first % 2 == 0) {
+            for (int i = first; i < applications.length; i += threadCount) {
+              concurrent.add(applications[i]);
+            }
+          } else {
+            Application[] batch = new Application[100];
+            int count = 0;
+            for (int i = first; i < applications.length; i += threadCount) {
+              batch[count++] = applications[i];
+              if (count == batch.length) {
+                concurrent.addAll(batch);
+                count = 0;
+              }
+            }
+            concurrent.addAll(Arrays.copyOf(batch, count));
+          }
+        });
+        threads[t].start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+
+      if (concurrent.getTotalScore() != sequential.getTotalScore()
+          || concurrent.getApplicationCount() != 500
+          || !Arrays.equals(concurrent.getScoreHistogram(), sequential.getScoreHistogram())
+          || concurrent.getThreshold() != sequential.getMinScore()) {
+        return false;
+      }
+
+      // rejections reach the duplicate filter, as they do sequentially
+      ConcurrentOpenPosition filtered = new ConcurrentOpenPosition(new OpenPosition("Filtered", 1,
+          new ApplicationQueue(1), new DuplicateEmailFilter(100)));
+      OpenPosition filteredSequential =
+          new OpenPosition("Filtered", 1, new ApplicationQueue(1), new DuplicateEmailFilter(100));
+      Application[] submissions = {new Application("X", "x@wisc.edu", 50),
+          new Application("Y", "y@wisc.edu", 10), new Application("Y", "y@wisc.edu", 90)};
+      for (Application a : submissions) {
+        if (filtered.add(a) != filteredSequential.add(a)) {
+          return false;
+        }
+      }
+      ConcurrentOpenPosition batched = new ConcurrentOpenPosition(new OpenPosition("Batched", 1,
+          new ApplicationQueue(1), new DuplicateEmailFilter(100)));
+      batched.add(submissions[0]);
+      BatchResult batch = batched.addAll(Arrays.copyOfRange(submissions, 1, 3));
+      if (batch.getAdmitted() != 0 || batch.getRejected() != 2
+          || batched.getTotalScore() != filteredSequential.getTotalScore()) {
+        return false;
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests ApplicationQueues of several arities against a sorted list of the same
+   * scores, through enqueue(), dequeue(), replaceTop(), enqueueAll() and iteration.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testApplicationQueueArity() {
+
+    try {
+      try {
+        new ApplicationQueue(3, 1);
+        return false;
+      } catch (IllegalArgumentException e) {
+        // correct
+      }
+
+      for (int arity : new int[] {2, 3, 4, 8}) {
+        Random random = new Random(arity);
+        ApplicationQueue queue = new ApplicationQueue(300, arity);
+        List<Integer> expected = new ArrayList<Integer>();
+
+        // random operations, checking the root every time
+        for (int i = 0; i < 5000; i++) {
+          int score = random.nextInt(Application.MAX_SCORE + 1);
+          Application application = new Application("Applicant", "applicant@wisc.edu", score);
+          int operation = random.nextInt(3);
+          if (operation == 0 && queue.size() < 300) {
+            queue.enqueue(application);
+            expected.add(score);
+          } else if (operation == 1 && !queue.isEmpty()) {
+            expected.remove(Integer.valueOf(queue.dequeue().getScore()));
+          } else if (!queue.isEmpty()) {
+            expected.remove(Integer.valueOf(queue.replaceTop(application).getScore()));
+            expected.add(score);
+          }
+          if (!queue.isEmpty() && queue.peek().getScore() != Collections.min(expected)) {
+            return false;
+          }
+        }
+
+        // bulk add, then iterate and drain in order
+        Application[] applications = new Application[300 - queue.size()];
+        for (int i = 0; i < applications.length; i++) {
+          applications[i] = new Application("Applicant", "applicant@wisc.edu",
+              random.nextInt(Application.MAX_SCORE + 1));
+          expected.add(applications[i].getScore());
+        }
+        queue.enqueueAll(applications);
+        Collections.sort(expected);
+
+        int index = 0;
+        for (Application a : queue) {
+          if (a.getScore() != expected.get(index++)) {
+            return false;
+          }
+        }
+        if (index != 300 || queue.deepCopy().getArity() != arity) {
+          return false;
+        }
+        for (int score : expected) {
+          if (queue.dequeue().getScore() != score) {
+            return false;
+          }
+        }
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the OffHeapApplicationQueue class, alone with a small arena
+   * which must be compacted and grown, and as the priority queue of an OpenPosition.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testOffHeapApplicationQueue() {
+
+    try {
+      OffHeapApplicationQueue queue = new OffHeapApplicationQueue(50, 16);
+      ApplicationQueue reference = new ApplicationQueue(50);
+      Random random = new Random(23);
+
+      // the arena starts too small for a single record
+      for (int i = 0; i < 2000; i++) {
+        Application application = new Application("Applicant\u00e9" + i,
+            "applicant" + i + "@wisc.edu", random.nextInt(Application.MAX_SCORE + 1));
+        Application evicted = queue.offer(application);
+        Application expected = reference.offer(application);
+        if ((evicted == null) != (expected == null)
+            || (evicted != null && evicted.getScore() != expected.getScore())) {
+          return false;
+        }
+        if (queue.peek().getScore() != reference.peek().getScore()
+            || queue.peekScore() != reference.peek().getScore()) {
+          return false;
+        }
+      }
+
+      // the records survived the compactions, and the iteration is ordered
+      int previous = -1;
+      int count = 0;
+      for (Application a : queue) {
+        if (a.getScore() < previous || !a.getName().startsWith("Applicant\u00e9")
+            || !a.getEmail().equals("applicant" + a.getName().substring(10) + "@wisc.edu")) {
+          return false;
+        }
+        previous = a.getScore();
+        count++;
+      }
+      if (count != 50 || queue.getArenaLength() < 16) {
+        return false;
+      }
+
+      while (!reference.isEmpty()) {
+        if (queue.dequeue().getScore() != reference.dequeue().getScore()) {
+          return false;
+        }
+      }
+      if (!queue.isEmpty()) {
+        return false;
+      }
+      try {
+        queue.peekScore();
+        return false;
+      } catch (NoSuchElementException e) {
+      }
+
+      // an OpenPosition works unchanged on top of it
+      OpenPosition position = new OpenPosition("Programmer", 3, new OffHeapApplicationQueue(3));
+      position.add(new Application("Nerd", "nerd@wisc.edu", 80));
+      position.add(new Application("Handsome", "handsome@wisc.edu", 50));
+      position.add(new Application("CuteGuy", "cute@wisc.edu", 30));
+      if (position.add(new Application("HotGuy", "hot@wisc.edu", 20)) != false
+          || position.add(new Application("Marin", "msuzuki@wisc.edu", 100)) == false) {
+        return false;
+      }
+      String expected = "Handsome:handsome@wisc.edu:50" + "\n" + "Nerd:nerd@wisc.edu:80" + "\n"
+          + "Marin:msuzuki@wisc.edu:100";
+      if (!position.getApplications().trim().equals(expected) || position.getTotalScore() != 230) {
+        System.out.println(position.getApplications().trim());
+        return false;
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the ApplicationLoader class with CSV and JSON Lines files
+   * containing valid, malformed and invalid rows.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testApplicationLoader() {
+
+    Path csv = null;
+    Path json = null;
+    try {
+      csv = Files.createTempFile("applications", ".csv");
+      json = Files.createTempFile("applications", ".jsonl");
+
+      Files.write(csv, ("name,email,score\n" + "Nerd,nerd@wisc.edu,80\r\n"
+          + "Handsome, Jr,handsome@wisc.edu,50\n" + "malformed row\n" + "\n"
+          + "NoAt,noat.wisc.edu,90\n" + "TooHigh,high@wisc.edu,101\n"
+          + "CuteGuy,cute@wisc.edu,30\n" + "HotGuy,hot@wisc.edu,20\n"
+          + "Marin,msuzuki@wisc.edu, 100").getBytes(StandardCharsets.UTF_8));
+
+      OpenPosition position = new OpenPosition("Programmer", 3);
+      BatchResult result = ApplicationLoader.loadCsv(csv, position);
+      String expected = "Handsome, Jr:handsome@wisc.edu:50" + "\n" + "Nerd:nerd@wisc.edu:80"
+          + "\n" + "Marin:msuzuki@wisc.edu:100";
+      if (!position.getApplications().trim().equals(expected) || result.getAdmitted() != 4
+          || result.getRejected() != 4 || result.getEvicted() != 1) {
+        System.out.println(result + "\n" + position.getApplications());
+        return false;
+      }
+
+      Files.write(json, ("{\"name\": \"Nerd\", \"email\": \"nerd@wisc.edu\", \"score\": 80}\n"
+          + "{\"score\":50,\"email\":\"handsome@wisc.edu\",\"name\":\"Hand\\\"some\\u00e9\"}\n"
+          + "{\"name\": \"NoScore\", \"email\": \"noscore@wisc.edu\"}\n" + "not json\n"
+          + "{\"name\": \"CuteGuy\", \"email\": \"cute@wisc.edu\", \"score\": 30, \"id\": 7}\n"
+          + "{\"name\": \"HotGuy\", \"email\": \"hot@wisc.edu\", \"score\": 20}\n"
+          + "{\"name\": \"Marin\", \"email\": \"msuzuki@wisc.edu\", \"score\": 100}\n")
+              .getBytes(StandardCharsets.UTF_8));
+
+      position = new OpenPosition("Programmer", 3);
+      result = ApplicationLoader.loadJsonLines(json, position);
+      expected = "Hand\"some\u00e9:handsome@wisc.edu:50" + "\n" + "Nerd:nerd@wisc.edu:80" + "\n"
+          + "Marin:msuzuki@wisc.edu:100";
+      if (!position.getApplications().trim().equals(expected) || result.getAdmitted() != 4
+          || result.getRejected() != 3 || result.getEvicted() != 1) {
+        System.out.println(result + "\n" + position.getApplications());
+        return false;
+      }
+
+      // a rejected email is filtered, as it is by add()
+      Files.write(csv, ("X,x@wisc.edu,50\n" + "Y,y@wisc.edu,10\n" + "Y,y@wisc.edu,90\n")
+          .getBytes(StandardCharsets.UTF_8));
+      position =
+          new OpenPosition("Filtered", 1, new ApplicationQueue(1), new DuplicateEmailFilter(100));
+      result = ApplicationLoader.loadCsv(csv, position);
+      if (result.getAdmitted() != 1 || result.getRejected() != 2
+          || !position.getApplications().equals("X:x@wisc.edu:50\n")) {
+        return false;
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    } finally {
+      try {
+        if (csv != null) {
+          Files.deleteIfExists(csv);
+        }
+        if (json != null) {
+          Files.deleteIfExists(json);
+        }
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of Application.validate(), Application.tryCreate() and the
+   * ApplicationValidator class.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testApplicationValidation() {
+
+    try {
+      // validate reports the first invalid field
+      if (Application.validate("Marin", "msuzuki@wisc.edu", 99) != Application.VALID
+          || Application.validate(null, "msuzuki@wisc.edu", 99) != Application.INVALID_NAME
+          || Application.validate(" \t", null, 101) != Application.INVALID_NAME
+          || Application.validate("Marin", null, 99) != Application.INVALID_EMAIL
+          || Application.validate("Marin", "msuzuki.wisc.edu", 99) != Application.INVALID_EMAIL
+          || Application.validate("Marin", "m@suzuki@wisc.edu", 99) != Application.INVALID_EMAIL
+          || Application.validate("Marin", "@@", 99) != Application.INVALID_EMAIL
+          || Application.validate("Marin", "@", -1) != Application.INVALID_SCORE) {
+        return false;
+      }
+
+      // tryCreate does not throw
+      Application application = Application.tryCreate("Marin", "msuzuki@wisc.edu", 99);
+      if (application == null || !application.toString().equals("Marin:msuzuki@wisc.edu:99")
+          || Application.tryCreate("Marin", "msuzuki@@wisc.edu", 99) != null) {
+        return false;
+      }
+
+      // the constructor still throws
+      try {
+        new Application("Marin", "msuzuki@wisc.edu", 101);
+        return false;
+      } catch (IllegalArgumentException e) {
+        // correct
+      }
+
+      // a batch is validated and rejects are counted by reason
+      ApplicationValidator validator = new ApplicationValidator();
+      Application[] accepted = validator.acceptAll(
+          new String[] {"Marin", "", "Nerd", "Handsome", "CuteGuy"},
+          new String[] {"msuzuki@wisc.edu", "blank@wisc.edu", "nerd.wisc.edu", "handsome@wisc.edu",
+              "cute@wisc.edu"},
+          new int[] {99, 50, 80, 101, 30});
+      if (accepted.length != 2 || !accepted[1].getName().equals("CuteGuy")
+          || validator.getAccepted() != 2 || validator.getRejected() != 3
+          || validator.getRejected(Application.INVALID_NAME) != 1
+          || validator.getRejected(Application.INVALID_EMAIL) != 1
+          || validator.getRejected(Application.INVALID_SCORE) != 1) {
+        return false;
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the PositionRegistry class, routing Applications to many
+   * positions from several threads and comparing each position with sequential calls to
+   * OpenPosition.add().
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testPositionRegistry() {
+
+    try (PositionRegistry registry = new PositionRegistry(4)) {
+      int positionCount = 50;
+      OpenPosition[] sequential = new OpenPosition[positionCount];
+      for (int p = 0; p < positionCount; p++) {
+        if (!registry.createPosition("Position" + p, 10 + p).get()) {
+          return false;
+        }
+        sequential[p] = new OpenPosition("Position" + p, 10 + p);
+      }
+
+      // a position cannot be created twice
+      if (registry.createPosition("Position0", 3).get()) {
+        return false;
+      }
+
+      // route applications from several threads, each position being fed by a single thread
+      Random random = new Random(29);
+      Application[][] applications = new Application[positionCount][];
+      for (int p = 0; p < positionCount; p++) {
+        applications[p] = newApplications(1000, random);
+        for (Application application : applications[p]) {
+          sequential[p].add(application);
+        }
+      }
+      Thread[] threads = new Thread[4];
+      for (int t = 0; t < threads.length; t++) {
+        int first = t;
+        threads[t] = new Thread(() -> {
+          for (int p = first; p < positionCount; p += threads.length) {
+            for (int i = 0; i < 500; i++) {
+              registry.route("Position" + p, applications[p][i]);
+            }
+            registry.routeAll("Position" + p, Arrays.copyOfRange(applications[p], 500, 1000));
+          }
+        });
+        threads[t].start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+
+      Map<String, Integer> counts = registry.getApplicationCounts().get();
+      Map<String, Integer> thresholds = registry.getThresholds().get();
+      Map<String, Long> totals = registry.collect(OpenPosition::getTotalScore).get();
+      if (counts.size() != positionCount) {
+        return false;
+      }
+      for (int p = 0; p < positionCount; p++) {
+        String name = "Position" + p;
+        if (counts.get(name) != sequential[p].getApplicationCount()
+            || thresholds.get(name) != sequential[p].getMinScore()
+            || totals.get(name) != sequential[p].getTotalScore()) {
+          return false;
+        }
+      }
+
+      // an unknown position fails the future
+      try {
+        registry.route("Unknown", applications[0][0]).get();
+        return false;
+      } catch (ExecutionException e) {
+        if (!(e.getCause() instanceof IllegalArgumentException)) {
+          return false;
+        }
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the IndexedApplicationQueue class and the withdraw() and
+   * rescore() methods of OpenPosition, checking random removals and updates against a list of the
+   * expected Applications, and that copies never see the changes of each other.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testIndexedApplicationQueue() {
+
+    try {
+      Random random = new Random(31);
+      for (int arity = 2; arity <= 4; arity++) {
+        IndexedApplicationQueue queue = new IndexedApplicationQueue(200, arity);
+        List<Application> expected = new ArrayList<>();
+        int next = 0;
+
+        for (int step = 0; step < 3000; step++) {
+          int operation = random.nextInt(4);
+          if (operation == 0 && expected.size() < 200 || expected.isEmpty()) {
+            Application a = new Application("Applicant" + next, "applicant" + next + "@wisc.edu",
+                random.nextInt(Application.MAX_SCORE + 1));
+            next++;
+            queue.enqueue(a);
+            expected.add(a);
+          } else if (operation == 1) {
+            Application a = expected.remove(random.nextInt(expected.size()));
+            if (queue.remove(a.getEmail()) != a || queue.contains(a.getEmail())) {
+              return false;
+            }
+          } else if (operation == 2) {
+            int i = random.nextInt(expected.size());
+            Application a = expected.get(i);
+            int newScore = random.nextInt(Application.MAX_SCORE + 1);
+            if (queue.updateScore(a.getEmail(), newScore) != a
+                || queue.get(a.getEmail()).getScore() != newScore) {
+              return false;
+            }
+            expected.set(i, queue.get(a.getEmail()));
+          } else {
+            Application a = queue.dequeue();
+            if (!expected.remove(a) || queue.contains(a.getEmail())) {
+              return false;
+            }
+          }
+        }
+
+        // unknown emails are ignored
+        if (queue.remove("nobody@wisc.edu") != null
+            || queue.updateScore("nobody@wisc.edu", 50) != null) {
+          return false;
+        }
+
+        // every expected application can be found, and the queue drains in order of scores
+        for (Application a : expected) {
+          if (queue.get(a.getEmail()) != a) {
+            return false;
+          }
+        }
+        IndexedApplicationQueue copy = queue.deepCopy();
+        Collections.sort(expected);
+        for (Application a : expected) {
+          if (queue.dequeue().getScore() != a.getScore()) {
+            return false;
+          }
+        }
+        if (!queue.isEmpty() || copy.size() != expected.size()) {
+          return false;
+        }
+        for (Application a : expected) {
+          if (!copy.contains(a.getEmail())) {
+            return false;
+          }
+        }
+
+        // a copy of the copy shares its indexes until one of them changes
+        if (!expected.isEmpty()) {
+          IndexedApplicationQueue other = copy.deepCopy();
+          Application first = expected.get(0);
+          Application last = expected.get(expected.size() - 1);
+          if (other.remove(first.getEmail()) != first || copy.get(first.getEmail()) != first
+              || other.contains(first.getEmail()) || other.size() != expected.size() - 1) {
+            return false;
+          }
+          copy.updateScore(last.getEmail(), Application.MIN_SCORE);
+          if (other.get(last.getEmail()) != last
+              || copy.peek().getScore() != Application.MIN_SCORE) {
+            return false;
+          }
+          for (Application a : expected) {
+            if (a != first && other.get(a.getEmail()) != a) {
+              return false;
+            }
+          }
+        }
+      }
+
+      // an email cannot be enqueued twice
+      IndexedApplicationQueue queue = new IndexedApplicationQueue(5);
+      queue.enqueue(new Application("Alice", "alice@wisc.edu", 50));
+      try {
+        queue.enqueue(new Application("Alice", "alice@wisc.edu", 60));
+        return false;
+      } catch (IllegalArgumentException e) {
+      }
+
+      // withdraw and rescore keep the aggregates of a position up to date
+      OpenPosition position = new OpenPosition("Indexed", 3, new IndexedApplicationQueue(3));
+      position.add(new Application("Alice", "alice@wisc.edu", 50));
+      position.add(new Application("Bob", "bob@wisc.edu", 70));
+      position.add(new Application("Carol", "carol@wisc.edu", 90));
+      if (!position.withdraw("alice@wisc.edu") || position.withdraw("alice@wisc.edu")
+          || position.isFull() || position.getMinScore() != 70
+          || position.getTotalScore() != 160) {
+        return false;
+      }
+      if (!position.rescore("carol@wisc.edu", 20) || position.getMinScore() != 20
+          || position.getMaxScore() != 70 || position.getTotalScore() != 90
+          || position.getScoreCount(90) != 0) {
+        return false;
+      }
+      if (!position.add(new Application("Dave", "dave@wisc.edu", 30)) || !position.isFull()
+          || !position.add(new Application("Eve", "eve@wisc.edu", 40))
+          || position.getMinScore() != 30 || position.getTotalScore() != 140) {
+        return false;
+      }
+
+      // a position rejects an email already queued instead of throwing, even without a filter
+      OpenPosition unfiltered = new OpenPosition("Unfiltered", 2, new IndexedApplicationQueue(2));
+      if (!unfiltered.add(new Application("A", "a@x", 50))
+          || unfiltered.add(new Application("A", "a@x", 60))
+          || !unfiltered.add(new Application("B", "b@x", 40))
+          || unfiltered.add(new Application("A", "a@x", 90))) {
+        return false;
+      }
+      BatchResult batch = unfiltered.addAll(new Application[] {new Application("C", "c@x", 70),
+          new Application("C", "c@x", 80), new Application("A", "a@x", 95)});
+      if (batch.getAdmitted() != 1 || batch.getRejected() != 2 || batch.getEvicted() != 1
+          || unfiltered.getTotalScore() != 120) {
+        return false;
+      }
+
+      // other queues do not support it
+      try {
+        new OpenPosition("Plain", 3).withdraw("alice@wisc.edu");
+        return false;
+      } catch (UnsupportedOperationException e) {
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the DuplicateEmailFilter class, alone and as the duplicate
+   * filter of an OpenPosition.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testDuplicateEmailFilter() {
+
+    try {
+      // while the hash set has room, answers are exact even if the Bloom filter is overloaded
+      DuplicateEmailFilter filter = new DuplicateEmailFilter(1000, 100000);
+      for (int i = 0; i < 100000; i++) {
+        if (!filter.add("applicant" + i + "@wisc.edu")) {
+          return false;
+        }
+      }
+      for (int i = 0; i < 100000; i += 7) {
+        if (filter.add("applicant" + i + "@wisc.edu") || !filter.contains("applicant" + i
+            + "@wisc.edu")) {
+          return false;
+        }
+      }
+      if (filter.size() != 100000 || filter.isSaturated() || filter.contains("nobody@wisc.edu")) {
+        return false;
+      }
+
+      // once saturated, memory stops growing and seen emails are still duplicates
+      DuplicateEmailFilter bounded = new DuplicateEmailFilter(100000, 1000);
+      int accepted = 0;
+      for (int i = 0; i < 1000; i++) {
+        bounded.add("applicant" + i + "@wisc.edu");
+      }
+      long memory = bounded.getMemoryBytes();
+      for (int i = 1000; i < 100000; i++) {
+        if (bounded.add("applicant" + i + "@wisc.edu")) {
+          accepted++;
+        }
+      }
+      if (!bounded.isSaturated() || bounded.getMemoryBytes() != memory || accepted < 95000) {
+        return false;
+      }
+      for (int i = 0; i < 100000; i++) {
+        if (bounded.add("applicant" + i + "@wisc.edu")) {
+          return false;
+        }
+      }
+
+      // a position rejects the emails already submitted, admitted or not
+      OpenPosition position = new OpenPosition("Dedup", 2, new ApplicationQueue(2),
+          new DuplicateEmailFilter(100));
+      if (!position.add(new Application("Alice", "alice@wisc.edu", 50))
+          || position.add(new Application("Alice", "alice@wisc.edu", 90))
+          || !position.add(new Application("Bob", "bob@wisc.edu", 60))
+          || position.add(new Application("Carol", "carol@wisc.edu", 10))
+          || position.add(new Application("Carol", "carol@wisc.edu", 100))) {
+        return false;
+      }
+      BatchResult result = position.addAll(List.of(new Application("Bob", "bob@wisc.edu", 100),
+          new Application("Dave", "dave@wisc.edu", 70), new Application("Dave", "dave@wisc.edu",
+              80)));
+      if (result.getAdmitted() != 1 || result.getRejected() != 2 || result.getEvicted() != 1
+          || position.getTotalScore() != 130) {
+        return false;
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the PositionSnapshot class, saving positions and restoring
+   * them in the same heap order, and checking that corrupted snapshots are detected.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testPositionSnapshot() {
+
+    Path file = null;
+    try {
+      file = Files.createTempFile("position", ".snapshot");
+      Random random = new Random(37);
+
+      for (int arity = 2; arity <= 4; arity += 2) {
+        OpenPosition position = new OpenPosition("Engineer \u00e9t\u00e9", 5000,
+            new ApplicationQueue(5000, arity));
+        for (int i = 0; i < 20000; i++) {
+          position.add(new Application("Applicant \u00fc" + i, "applicant" + i + "@wisc.edu",
+              random.nextInt(Application.MAX_SCORE + 1)));
+        }
+
+        PositionSnapshot.write(position, file);
+        OpenPosition restored = PositionSnapshot.read(file);
+
+        ApplicationQueue saved = (ApplicationQueue) position.getQueue();
+        ApplicationQueue loaded = (ApplicationQueue) restored.getQueue();
+        if (!restored.getPositionName().equals(position.getPositionName())
+            || restored.getCapacity() != 5000 || loaded.getArity() != arity
+            || loaded.size() != saved.size()
+            || restored.getTotalScore() != position.getTotalScore()
+            || restored.getMinScore() != position.getMinScore() || !restored.isFull()) {
+          return false;
+        }
+        for (int i = 0; i < saved.size(); i++) {
+          if (!loaded.get(i).toString().equals(saved.get(i).toString())) {
+            return false;
+          }
+        }
+      }
+
+      // other queues are saved in iteration order, and restored positions keep working
+      OpenPosition bucket = new OpenPosition("Bucket", 10, new BucketApplicationQueue(10));
+      bucket.add(new Application("Alice", "alice@wisc.edu", 70));
+      bucket.add(new Application("Bob", "bob@wisc.edu", 30));
+      bucket.add(new Application("Carol", "carol@wisc.edu", 50));
+      PositionSnapshot.write(bucket, file);
+      OpenPosition restored = PositionSnapshot.read(file);
+      if (!restored.getApplications().equals(bucket.getApplications()) || restored.isFull()
+          || !restored.add(new Application("Dave", "dave@wisc.edu", 10))
+          || !restored.getApplications().startsWith("Dave")) {
+        return false;
+      }
+
+      // the kind of queue and the duplicate filter are restored
+      OpenPosition filtered = new OpenPosition("Filtered", 4, new MinMaxApplicationQueue(4),
+          new DuplicateEmailFilter(1000, 10));
+      for (int i = 0; i < 20; i++) {
+        filtered.add(new Application("Applicant" + i, "applicant" + i + "@wisc.edu", i * 5));
+      }
+      PositionSnapshot.write(filtered, file);
+      restored = PositionSnapshot.read(file);
+      if (!(restored.getQueue() instanceof MinMaxApplicationQueue)
+          || !restored.getApplications().equals(filtered.getApplications())
+          || !restored.getFilter().isSaturated() || restored.getFilter().size() != 20
+          || restored.add(new Application("Again", "applicant3@wisc.edu", 100))
+          || !restored.add(new Application("New", "new@wisc.edu", 100))) {
+        return false;
+      }
+      PositionSnapshot.write(bucket, file);
+      if (!(PositionSnapshot.read(file).getQueue() instanceof BucketApplicationQueue)) {
+        return false;
+      }
+      PositionSnapshot.write(filtered, file);
+
+      // any corrupted or truncated byte is detected
+      byte[] bytes = Files.readAllBytes(file);
+      for (int i = 0; i < bytes.length; i++) {
+        byte[] corrupted = bytes.clone();
+        corrupted[i] ^= 0x10;
+        Files.write(file, corrupted);
+        try {
+          PositionSnapshot.read(file);
+          return false;
+        } catch (IOException e) {
+        }
+      }
+      Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+      try {
+        PositionSnapshot.read(file);
+        return false;
+      } catch (IOException e) {
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    } finally {
+      try {
+        if (file != null) {
+          Files.deleteIfExists(file);
+        }
+      } catch (IOException e) {
+      }
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the PositionJournal class, replaying journals onto the
+   * snapshot they follow or onto an empty position, and checking that a torn last entry is cut and
+   * that tied Applications are evicted in the same order with every kind of queue.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testPositionJournal() {
+
+    Path snapshot = null;
+    Path journalFile = null;
+    try {
+      snapshot = Files.createTempFile("position", ".snapshot");
+      journalFile = Files.createTempFile("position", ".journal");
+      Random random = new Random(41);
+      Application[] applications = newApplications(30000, random);
+
+      // snapshot, then journal the next adds
+      OpenPosition position = new OpenPosition("Journaled \u00e9", 1000);
+      position.addAll(Arrays.copyOf(applications, 10000));
+      PositionSnapshot.write(position, snapshot);
+      try (PositionJournal journal = new PositionJournal(journalFile,
+          PositionJournal.Sync.EVERY_COMMIT)) {
+        position.setJournal(journal);
+        for (int i = 10000; i < 20000; i++) {
+          position.add(applications[i]);
+        }
+        position.addAll(Arrays.copyOfRange(applications, 20000, 30000));
+        journal.commit();
+        position.setJournal(null);
+      }
+
+      OpenPosition restored = PositionSnapshot.read(snapshot);
+      if (PositionJournal.replay(journalFile, restored) < 20000
+          || !restored.getApplications().equals(position.getApplications())
+          || restored.getTotalScore() != position.getTotalScore()) {
+        return false;
+      }
+      ApplicationQueue expected = (ApplicationQueue) position.getQueue();
+      ApplicationQueue actual = (ApplicationQueue) restored.getQueue();
+      for (int i = 0; i < expected.size(); i++) {
+        if (!expected.get(i).toString().equals(actual.get(i).toString())) {
+          return false;
+        }
+      }
+
+      // withdrawals and re-scores are replayed too
+      Files.delete(journalFile);
+      OpenPosition indexed = new OpenPosition("Indexed", 3, new IndexedApplicationQueue(3));
+      try (PositionJournal journal = new PositionJournal(journalFile, PositionJournal.Sync.NEVER,
+          1, TimeUnit.SECONDS)) {
+        indexed.setJournal(journal);
+        indexed.add(new Application("Alice", "alice@wisc.edu", 50));
+        indexed.add(new Application("Bob \ud83d\ude00", "bob@wisc.edu", 70));
+        indexed.add(new Application("Carol", "carol@wisc.edu", 90));
+        indexed.withdraw("alice@wisc.edu");
+        indexed.rescore("carol@wisc.edu", 20);
+        indexed.add(new Application("Dave", "dave@wisc.edu", 30));
+        indexed.add(new Application("Eve", "eve@wisc.edu", 10));
+        indexed.setJournal(null);
+      }
+      OpenPosition replayed = new OpenPosition("Indexed", 3, new IndexedApplicationQueue(3));
+      if (PositionJournal.replay(journalFile, replayed) != 7
+          || !replayed.getApplications().equals(indexed.getApplications())) {
+        return false;
+      }
+
+      // a torn last entry is ignored and cut from the file
+      long length = Files.size(journalFile);
+      try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+        channel.truncate(length - 3);
+      }
+      replayed = new OpenPosition("Indexed", 3, new IndexedApplicationQueue(3));
+      if (PositionJournal.replay(journalFile, replayed) != 6
+          || Files.size(journalFile) >= length - 3) {
+        return false;
+      }
+
+      // a snapshot of an indexed and filtered position, then its journal, restore it entirely
+      Files.delete(journalFile);
+      OpenPosition recovered = new OpenPosition("Recovered", 3, new IndexedApplicationQueue(3),
+          new DuplicateEmailFilter(100));
+      recovered.add(new Application("A", "a@x", 50));
+      recovered.add(new Application("B", "b@x", 60));
+      recovered.add(new Application("C", "c@x", 70));
+      PositionSnapshot.write(recovered, snapshot);
+      try (PositionJournal journal = new PositionJournal(journalFile, PositionJournal.Sync.NEVER)) {
+        recovered.setJournal(journal);
+        recovered.withdraw("a@x");
+        recovered.rescore("b@x", 80);
+        recovered.add(new Application("D", "d@x", 40));
+        recovered.add(new Application("E", "e@x", 30)); // rejected, e@x is filtered from now on
+        recovered.add(new Application("C", "c@x", 100)); // duplicate
+        recovered.setJournal(null);
+      }
+      restored = PositionSnapshot.read(snapshot);
+      if (!(restored.getQueue() instanceof IndexedApplicationQueue)
+          || PositionJournal.replay(journalFile, restored) != 5
+          || !restored.getApplications().equals(recovered.getApplications())
+          || restored.getTotalScore() != recovered.getTotalScore()
+          || restored.add(new Application("A", "a@x", 100))
+          || restored.add(new Application("E", "e@x", 100))
+          || !restored.add(new Application("F", "f@x", 100))) {
+        return false;
+      }
+
+      // ties are restored and evicted in the same order, whatever the kind of queue
+      Application[] tied = new Application[300];
+      for (int i = 0; i < tied.length; i++) {
+        tied[i] = new Application("Tied" + i, "tied" + i + "@wisc.edu", 50 + i % 3);
+      }
+      for (int kind = 0; kind < 5; kind++) {
+        Files.delete(journalFile);
+        OpenPosition live = new OpenPosition("Tied", 40, newQueue(kind, 40));
+        live.addAll(Arrays.copyOf(tied, 100));
+        PositionSnapshot.write(live, snapshot);
+        try (PositionJournal journal = new PositionJournal(journalFile,
+            PositionJournal.Sync.NEVER)) {
+          live.setJournal(journal);
+          for (int i = 100; i < 200; i++) {
+            live.add(tied[i]);
+          }
+          live.addAll(Arrays.copyOfRange(tied, 200, 300));
+          live.setJournal(null);
+        }
+        restored = PositionSnapshot.read(snapshot);
+        PositionJournal.replay(journalFile, restored);
+        if (!restored.getApplications().equals(live.getApplications())) {
+          return false;
+        }
+
+        // the same Applications admitted in another order evict other tied Applications
+        OpenPosition reordered = new OpenPosition("Tied", 40, newQueue(kind, 40));
+        for (int i = 99; i >= 0; i--) {
+          reordered.add(tied[i]);
+        }
+        try {
+          PositionJournal.replay(journalFile, reordered);
+          return false;
+        } catch (IOException e) {
+        }
+      }
+
+      // withdrawals cannot be replayed onto a position which does not support them
+      try {
+        PositionJournal.replay(journalFile, new OpenPosition("Plain", 3));
+        return false;
+      } catch (IOException e) {
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    } finally {
+      try {
+        if (snapshot != null) {
+          Files.deleteIfExists(snapshot);
+        }
+        if (journalFile != null) {
+          Files.deleteIfExists(journalFile);
+        }
+      } catch (IOException e) {
+      }
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the PositionMetrics class, recording through an
+   * instrumented position, whatever the openposition.metrics system property, and directly.
+   * The metrics are read back through the platform MBean server.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testPositionMetrics() {
+
+    try {
+      // by default, positions only have metrics with -Dopenposition.metrics=true
+      if ((new OpenPosition("Default", 2).getMetrics() != null) != PositionMetrics.ENABLED) {
+        return false;
+      }
+
+      // an instrumented position never attaches its metrics to a queue given by its caller
+      ApplicationQueue given = new ApplicationQueue(2);
+      OpenPosition position = new OpenPosition("Measured", 2, given, null, true);
+      position.add(new Application("Alice", "alice@wisc.edu", 50));
+      position.add(new Application("Bob", "bob@wisc.edu", 60));
+      position.add(new Application("Carol", "carol@wisc.edu", 40));
+      PositionMetrics measured = position.getMetrics();
+      if (measured == null || given.metrics != null) {
+        return false;
+      }
+
+      // once the position owns its queue, it also records the percolations
+      position.measureQueue();
+      position.add(new Application("Dave", "dave@wisc.edu", 70));
+      long adds = 0;
+      for (long count : measured.getAddLatencyHistogram()) {
+        adds += count;
+      }
+      long sifts = 0;
+      for (long count : measured.getSiftDepthHistogram()) {
+        sifts += count;
+      }
+      if (measured.getAdmittedCount() != 3 || measured.getRejectedCount() != 1
+          || measured.getEvictedCount() != 1 || measured.getThreshold() != 60
+          || measured.getOccupancy() != 2 || adds != 4 || sifts == 0) {
+        return false;
+      }
+
+      // metrics recorded directly, and read through JMX
+      PositionMetrics metrics = new PositionMetrics(position);
+      metrics.record(PositionJournal.ADMIT);
+      metrics.record(PositionJournal.ADMIT);
+      metrics.record(PositionJournal.EVICT);
+      metrics.record(PositionJournal.WITHDRAW);
+      metrics.recordRejected(5);
+      metrics.recordSift(3);
+      metrics.recordSift(100);
+      metrics.recordAdd(0);
+      metrics.recordAdd(1000);
+      ObjectName name = metrics.register();
+      try {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        long[] siftDepths = (long[]) server.getAttribute(name, "SiftDepthHistogram");
+        long[] latencies = (long[]) server.getAttribute(name, "AddLatencyHistogram");
+        if ((Long) server.getAttribute(name, "AdmittedCount") != 2
+            || (Long) server.getAttribute(name, "EvictedCount") != 1
+            || (Long) server.getAttribute(name, "RejectedCount") != 5
+            || (Integer) server.getAttribute(name, "Capacity") != 2
+            || !"Measured".equals(server.getAttribute(name, "PositionName"))
+            || siftDepths[3] != 1 || siftDepths[siftDepths.length - 1] != 1
+            || latencies[0] != 1 || latencies[9] != 1) {
+          return false;
+        }
+      } finally {
+        PositionMetrics.unregister(name);
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the snapshot() method of OpenPosition, checking that views
+   * are shared until the position changes and never see later changes, and the constant-time
+   * deepCopy() of ApplicationQueue.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testPositionView() {
+
+    try {
+      // copies share the heap until one of them changes
+      ApplicationQueue queue = new ApplicationQueue(10);
+      queue.enqueue(new Application("Alice", "alice@wisc.edu", 50));
+      queue.enqueue(new Application("Bob", "bob@wisc.edu", 30));
+      ApplicationQueue copy = queue.deepCopy();
+      queue.enqueue(new Application("Carol", "carol@wisc.edu", 10));
+      copy.dequeue();
+      if (queue.size() != 3 || queue.peek().getScore() != 10 || copy.size() != 1
+          || copy.peek().getScore() != 50 || queue.get(1).getScore() != 50) {
+        return false;
+      }
+
+      OpenPosition position = new OpenPosition("Viewed", 3);
+      position.add(new Application("Alice", "alice@wisc.edu", 50));
+      position.add(new Application("Bob", "bob@wisc.edu", 30));
+      PositionView first = position.snapshot();
+      if (position.snapshot() != first) {
+        return false; // no change, same view
+      }
+
+      String expected = position.getApplications();
+      position.add(new Application("Carol", "carol@wisc.edu", 90));
+      position.add(new Application("Dave", "dave@wisc.edu", 70));
+      PositionView second = position.snapshot();
+      if (second == first || !first.getApplications().equals(expected)
+          || first.getApplicationCount() != 2 || first.getTotalScore() != 80
+          || first.getMinScore() != 30 || first.isFull() || first.getScoreCount(90) != 0
+          || second.getApplicationCount() != 3 || second.getTotalScore() != 210
+          || second.getMinScore() != 50 || !second.isFull() || second.getCapacity() != 3
+          || !second.getApplications().equals(position.getApplications())) {
+        return false;
+      }
+
+      // readers iterate a view while the position keeps changing
+      Iterator<Application> iterator = second.iterator();
+      position.add(new Application("Eve", "eve@wisc.edu", 100));
+      int[] scores = {50, 70, 90};
+      for (int score : scores) {
+        if (iterator.next().getScore() != score) {
+          return false;
+        }
+      }
+      if (iterator.hasNext()) {
+        return false;
+      }
+
+      // other queues are copied once per change
+      OpenPosition bucket = new OpenPosition("Bucket", 3, new BucketApplicationQueue(3));
+      bucket.add(new Application("Alice", "alice@wisc.edu", 50));
+      bucket.add(new Application("Bob", "bob@wisc.edu", 30));
+      PositionView view = bucket.snapshot();
+      bucket.add(new Application("Carol", "carol@wisc.edu", 10));
+      if (bucket.snapshot() == view || view.getApplicationCount() != 2
+          || !bucket.snapshot().getApplications().equals(bucket.getApplications())) {
+        return false;
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the ShortlistExporter class through the exportApplications()
+   * and getApplications(int, int) methods of OpenPosition and PositionView, comparing their output
+   * with sortedArray() and getApplications(), and the ScoreBucketIterator class they stream with.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testShortlistExport() {
+
+    try {
+      Random random = new Random(43);
+      OpenPosition position = new OpenPosition("Exported", 20000);
+      for (int i = 0; i < 30000; i++) {
+        position.add(new Application("Applicant \u00e9\ud83d\ude00" + i,
+            "applicant" + i + "@wisc.edu", random.nextInt(Application.MAX_SCORE + 1)));
+      }
+      // exports the scores of getApplications(), ties in the order of sortedArray()
+      StringBuilder sorted = new StringBuilder();
+      for (Application a : position.sortedArray()) {
+        sorted.append(a).append("\n");
+      }
+      String expected = sorted.toString();
+      String[] lines = expected.split("\n");
+      String[] iterated = position.getApplications().split("\n");
+      if (lines.length != iterated.length) {
+        return false;
+      }
+      for (int i = 0; i < lines.length; i++) {
+        if (!lines[i].substring(lines[i].lastIndexOf(':'))
+            .equals(iterated[i].substring(iterated[i].lastIndexOf(':')))) {
+          return false;
+        }
+      }
+      Arrays.sort(lines);
+      Arrays.sort(iterated);
+      if (!Arrays.equals(lines, iterated)) {
+        return false;
+      }
+
+      // to an Appendable
+      StringWriter writer = new StringWriter();
+      position.exportApplications(writer);
+      if (!writer.toString().equals(expected)) {
+        return false;
+      }
+
+      // to a channel, crossing many buffer boundaries
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      position.snapshot().exportApplications(Channels.newChannel(bytes));
+      if (!Arrays.equals(bytes.toByteArray(), expected.getBytes(StandardCharsets.UTF_8))) {
+        return false;
+      }
+
+      // pages in increasing order of the scores, as listed by getApplications()
+      StringBuilder paged = new StringBuilder();
+      for (int offset = 0; ; offset += 777) {
+        List<Application> page = position.getApplications(offset, 777);
+        for (Application a : page) {
+          paged.append(a).append("\n");
+        }
+        if (page.size() < 777) {
+          break;
+        }
+      }
+      if (!paged.toString().equals(position.getApplications())
+          || !position.getApplications(20000, 10).isEmpty()
+          || position.snapshot().getApplications(19999, 10).size() != 1) {
+        return false;
+      }
+      try {
+        position.getApplications(-1, 10);
+        return false;
+      } catch (IllegalArgumentException e) {
+      }
+
+      // the streaming iterator of a queue, empty or not
+      ApplicationQueue queue = new ApplicationQueue(3);
+      if (new ScoreBucketIterator(queue).hasNext()) {
+        return false;
+      }
+      queue.enqueue(new Application("Alice", "alice@wisc.edu", Application.MAX_SCORE));
+      queue.enqueue(new Application("Bob", "bob@wisc.edu", Application.MIN_SCORE));
+      Iterator<Application> iterator = new ScoreBucketIterator(queue);
+      if (iterator.next().getScore() != Application.MIN_SCORE
+          || iterator.next().getScore() != Application.MAX_SCORE || iterator.hasNext()) {
+        return false;
+      }
+      iterator = new ScoreBucketIterator(queue);
+      queue.dequeue();
+      try {
+        iterator.next();
+        return false;
+      } catch (ConcurrentModificationException e) {
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the sortedArray() and sortedList() methods of
+   * ApplicationQueue, OpenPosition and PositionView, comparing them with the iteration order.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testSortedArray() {
+
+    try {
+      Random random = new Random(47);
+      for (int arity = 2; arity <= 8; arity *= 2) {
+        ApplicationQueue queue = new ApplicationQueue(5000, arity);
+        queue.enqueueAll(newApplications(5000, random));
+
+        Application[] sorted = queue.sortedArray();
+        List<Application> iterated = new ArrayList<>();
+        for (Application a : queue) {
+          iterated.add(a);
+        }
+        if (sorted.length != queue.size()
+            || !new HashSet<>(Arrays.asList(sorted)).equals(
+                new HashSet<>(iterated))) {
+          return false;
+        }
+        for (int i = 0; i < sorted.length; i++) {
+          if (sorted[i].getScore() != iterated.get(i).getScore()) {
+            return false;
+          }
+        }
+      }
+
+      // positions and views, whatever their queue
+      OpenPosition position = new OpenPosition("Sorted", 4);
+      OpenPosition bucket = new OpenPosition("Bucket", 4, new BucketApplicationQueue(4));
+      int[] scores = {60, 20, 90, 40, 70};
+      for (int score : scores) {
+        Application a = new Application("Applicant" + score, "applicant@wisc.edu", score);
+        position.add(a);
+        bucket.add(a);
+      }
+      int[] expected = {40, 60, 70, 90};
+      Application[][] results = {position.sortedArray(), bucket.sortedArray(),
+          position.snapshot().sortedArray(), position.sortedList().toArray(new Application[0])};
+      for (Application[] result : results) {
+        if (result.length != expected.length) {
+          return false;
+        }
+        for (int i = 0; i < expected.length; i++) {
+          if (result[i].getScore() != expected[i]) {
+            return false;
+          }
+        }
+      }
+      try {
+        position.sortedList().clear();
+        return false;
+      } catch (UnsupportedOperationException e) {
+      }
+      if (new ApplicationQueue(3).sortedArray().length != 0) {
+        return false;
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the MinMaxApplicationQueue class, comparing both of its
+   * ends with a sorted list, and the topCandidates() method of OpenPosition.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testMinMaxApplicationQueue() {
+
+    try {
+      Random random = new Random(24);
+      MinMaxApplicationQueue queue = new MinMaxApplicationQueue(2000);
+      List<Application> expected = new ArrayList<>();
+      for (Application a : newApplications(2000, random)) {
+        queue.enqueue(a);
+        expected.add(a);
+      }
+      expected.sort((a, b) -> Integer.compare(a.getScore(), b.getScore()));
+
+      // the iterator goes from the lowest to the highest score
+      int i = 0;
+      for (Application a : queue) {
+        if (a.getScore() != expected.get(i++).getScore()) {
+          return false;
+        }
+      }
+
+      // top candidates, without modifying the queue
+      List<Application> top = queue.topCandidates(50);
+      if (top.size() != 50 || queue.size() != 2000) {
+        return false;
+      }
+      for (i = 0; i < top.size(); i++) {
+        if (top.get(i).getScore() != expected.get(expected.size() - 1 - i).getScore()) {
+          return false;
+        }
+      }
+      if (queue.topCandidates(5000).size() != 2000) {
+        return false;
+      }
+
+      // dequeue from both ends, randomly
+      while (!expected.isEmpty()) {
+        Application min = queue.peekMin();
+        Application max = queue.peekMax();
+        if (min.getScore() != expected.get(0).getScore()
+            || max.getScore() != expected.get(expected.size() - 1).getScore()) {
+          return false;
+        }
+        if (random.nextBoolean()) {
+          if (queue.dequeueMin() != min) {
+            return false;
+          }
+          expected.remove(0);
+        } else {
+          if (queue.dequeueMax() != max) {
+            return false;
+          }
+          expected.remove(expected.size() - 1);
+        }
+        if (queue.size() != expected.size()) {
+          return false;
+        }
+      }
+      try {
+        queue.dequeueMax();
+        return false;
+      } catch (NoSuchElementException e) {
+      }
+
+      // as the queue of a position, which evicts its lowest-scored Applications
+      OpenPosition position = new OpenPosition("MinMax", 4, new MinMaxApplicationQueue(4));
+      OpenPosition heap = new OpenPosition("Heap", 4);
+      int[] scores = {60, 20, 90, 40, 70, 10, 80};
+      for (int score : scores) {
+        Application a = new Application("Applicant" + score, "applicant@wisc.edu", score);
+        position.add(a);
+        heap.add(a);
+      }
+      if (!position.getApplications().equals(heap.getApplications())) {
+        return false;
+      }
+      int[] best = {90, 80, 70};
+      List<Application> positionTop = position.topCandidates(3);
+      List<Application> heapTop = heap.topCandidates(3);
+      for (i = 0; i < best.length; i++) {
+        if (positionTop.get(i).getScore() != best[i] || heapTop.get(i).getScore() != best[i]) {
+          return false;
+        }
+      }
+      if (!position.topCandidates(0).isEmpty() || heap.topCandidates(10).size() != 4) {
+        return false;
+      }
+      try {
+        position.topCandidates(-1);
+        return false;
+      } catch (IllegalArgumentException e) {
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the countAtLeast(), getRank(), getPercentile() and
+   * selectNthBest() methods of OpenPosition, comparing them with a sorted list of the scores while
+   * Applications are added, evicted, withdrawn and rescored.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testScoreRankQueries() {
+
+    try {
+      Random random = new Random(25);
+      OpenPosition position = new OpenPosition("Ranks", 300, new IndexedApplicationQueue(300));
+      Application[] applications = newApplications(1000, random);
+      for (int step = 0; step < applications.length; step++) {
+        position.add(applications[step]);
+        if (step % 7 == 0) {
+          position.withdraw(applications[random.nextInt(step + 1)].getEmail());
+        } else if (step % 11 == 0) {
+          position.rescore(applications[random.nextInt(step + 1)].getEmail(),
+              random.nextInt(Application.MAX_SCORE + 1));
+        }
+        if (step % 50 != 0) {
+          continue;
+        }
+
+        Application[] sorted = position.sortedArray();
+        int size = sorted.length;
+        for (int score = Application.MIN_SCORE - 1; score <= Application.MAX_SCORE + 1; score++) {
+          int below = 0;
+          int above = 0;
+          for (Application a : sorted) {
+            below += a.getScore() < score ? 1 : 0;
+            above += a.getScore() > score ? 1 : 0;
+          }
+          if (position.countAtLeast(score) != size - below || position.getRank(score) != above + 1
+              || position.getPercentile(score) != (size == 0 ? 0 : 100.0 * below / size)) {
+            return false;
+          }
+        }
+        for (int n = 1; n <= size; n++) {
+          if (position.selectNthBest(n) != sorted[size - n].getScore()) {
+            return false;
+          }
+        }
+      }
+
+      // out-of-range queries
+      if (position.countAtLeast(Integer.MIN_VALUE) != position.getApplicationCount()
+          || position.countAtLeast(Integer.MAX_VALUE) != 0
+          || position.getRank(Integer.MAX_VALUE) != 1
+          || position.getRank(Integer.MIN_VALUE) != position.getApplicationCount() + 1) {
+        return false;
+      }
+      try {
+        position.selectNthBest(0);
+        return false;
+      } catch (IllegalArgumentException e) {
+      }
+      try {
+        position.selectNthBest(position.getApplicationCount() + 1);
+        return false;
+      } catch (NoSuchElementException e) {
+      }
+
+      // through a ConcurrentOpenPosition
+      ConcurrentOpenPosition concurrent = new ConcurrentOpenPosition("Concurrent", 3);
+      int[] scores = {50, 80, 80, 20};
+      for (int score : scores) {
+        concurrent.add(new Application("Applicant" + score, "applicant@wisc.edu", score));
+      }
+      if (concurrent.countAtLeast(80) != 2 || concurrent.getRank(50) != 3
+          || concurrent.getPercentile(80) != 100.0 / 3 || concurrent.selectNthBest(2) != 80
+          || concurrent.selectNthBest(3) != 50) {
+        return false;
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * This method tests and makes use of the BucketApplicationQueue class, alone and as the priority
+   * queue of an OpenPosition.
+   * 
+   * @return true when this test verifies the functionality, and false otherwise
+   */
+  public static boolean testBucketApplicationQueue() {
+
+    try {
+      // create a BucketApplicationQueue with 0 capacity (should fail)
+      try {
+        new BucketApplicationQueue(0);
+        return false;
+      } catch (IllegalArgumentException e) {
+        // correct
+      }
+
+      BucketApplicationQueue queue = new BucketApplicationQueue(4);
+      Application application1 = new Application("Marin", "msuzuki@wisc.edu", 100);
+      Application application2 = new Application("Handsome", "handsome@wisc.edu", 50);
+      Application application3 = new Application("Nerd", "nerd@wisc.edu", 0);
+      Application application4 = new Application("Tallguy", "tallguy@wisc.edu", 50);
+
+      queue.enqueue(application1);
+      queue.enqueue(application2);
+      queue.enqueue(application3);
+      queue.enqueue(application4);
+
+      // enqueue one more application (exceeds capacity)
+      try {
+        queue.enqueue(application1);
+        return false;
+      } catch (IllegalStateException e) {
+        // correct
+      }
+
+      if (queue.size() != 4 || !queue.peek().equals(application3)) {
+        return false;
+      }
+
+      // iterating must not modify the queue
+      int previous = -1;
+      for (Application a : queue) {
+        if (a.getScore() < previous) {
+          return false;
+        }
+        previous = a.getScore();
+      }
+
+      // dequeue in order of increasing score
+      if (queue.size() != 4 || queue.dequeue().getScore() != 0 || queue.dequeue().getScore() != 50
+          || queue.dequeue().getScore() != 50 || queue.dequeue().getScore() != 100) {
+        return false;
+      }
+
+      try {
+        queue.peek();
+        return false;
+      } catch (NoSuchElementException e) {
+        // correct
+      }
+
+      // an OpenPosition backed by buckets behaves as the default one
+      OpenPosition position = new OpenPosition("Programmer", 3, new BucketApplicationQueue(3));
+      position.add(new Application("Nerd", "nerd@wisc.edu", 80));
+      position.add(application2);
+      position.add(new Application("CuteGuy", "cute@wisc.edu", 30));
+
+      if (position.add(new Application("HotGuy", "hot@wisc.edu", 20)) != false
+          || position.add(application1) == false) {
+        return false;
+      }
+
+      String expected = "Handsome:handsome@wisc.edu:50" + "\n" + "Nerd:nerd@wisc.edu:80" + "\n"
+          + "Marin:msuzuki@wisc.edu:100";
+      if (!position.getApplications().trim().equals(expected) || position.getTotalScore() != 230) {
+        System.out.println(position.getApplications().trim());
+        return false;
+      }
+
+      // an OpenPosition cannot be built over a non-empty queue
+      try {
+        BucketApplicationQueue nonEmpty = new BucketApplicationQueue(3);
+        nonEmpty.enqueue(application1);
+        new OpenPosition("Programmer", 3, nonEmpty);
+        return false;
+      } catch (IllegalArgumentException e) {
+        // correct
+      }
+
+      // buckets shrink when they empty, so that filling every score in turn keeps few slots
+      BucketApplicationQueue churned = new BucketApplicationQueue(1000);
+      for (int score = Application.MIN_SCORE; score <= Application.MAX_SCORE; score++) {
+        for (int i = 0; i < 1000; i++) {
+          churned.enqueue(new Application("Churned", "churned@wisc.edu", score));
+        }
+        for (int i = 0; i < 990; i++) {
+          churned.dequeue();
+        }
+        if (churned.allocatedSlots() > 4 * (churned.size() + 1000)) {
+          return false;
+        }
+        while (!churned.isEmpty()) {
+          churned.dequeue();
+        }
+      }
+
+    } catch (Exception e) {
+      return false; // incorrect
+    }
+
+    return true; // passed
+  }
+
+  /**
+   * Creates the given number of Applications with distinct names and emails and uniformly
+   * distributed scores, used as a fixture by the tests
+   *
+   * @param count  the number of Applications to create
+   * @param random the source of the scores
+   * @return a new array of count Applications
+   */
+  private static Application[] newApplications(int count, Random random) {
+    Application[] applications = new Application[count];
+    for (int i = 0; i < count; i++) {
+      applications[i] = new Application("Applicant" + i, "applicant" + i + "@wisc.edu",
+          random.nextInt(Application.MAX_SCORE + 1));
+    }
+    return applications;
+  }
+
+  /**
+   * Creates an empty priority queue of one of the kinds a position can use
+   *
+   * @param kind     0 to 4 for an ApplicationQueue, an IndexedApplicationQueue, a
+   *                 BucketApplicationQueue, a MinMaxApplicationQueue and an OffHeapApplicationQueue
+   * @param capacity the capacity of the queue
+   * @return a new empty priority queue
+   */
+  private static PriorityQueueADT<Application> newQueue(int kind, int capacity) {
+    switch (kind) {
+      case 1:
+        return new IndexedApplicationQueue(capacity);
+      case 2:
+        return new BucketApplicationQueue(capacity);
+      case 3:
+        return new MinMaxApplicationQueue(capacity);
+      case 4:
+        return new OffHeapApplicationQueue(capacity);
+      default:
+        return new ApplicationQueue(capacity);
+    }
+  }
+
   /**
    * This method calls all the test methods defined and implemented in your OpenPositionTester
    * class.
@@ -408,7 +2440,17 @@ public class OpenPositionTester {
    */
   public static boolean runAllTests() {
     return testApplication() && testApplicationIterator() && testEnqueueDequeue()
-        && testCommonMethods() && testOpenPosition();
+        && testCommonMethods() && testOpenPosition() && testApplicationIteratorOrder()
+        && testOpenPositionAggregates() && testReplaceTopAndOffer()
+        && testBulkConstruction() && testAddAll() && testParallelShortlister()
+        && testConcurrentOpenPosition() && testApplicationQueueArity()
+        && testOffHeapApplicationQueue() && testApplicationLoader()
+        && testApplicationValidation() && testPositionRegistry()
+        && testIndexedApplicationQueue() && testDuplicateEmailFilter()
+        && testPositionSnapshot() && testPositionJournal() && testPositionMetrics()
+        && testPositionView() && testShortlistExport() && testSortedArray()
+        && testMinMaxApplicationQueue() && testScoreRankQueries()
+        && testBucketApplicationQueue();
   }
 
   /**
@@ -422,6 +2464,29 @@ public class OpenPositionTester {
     System.out.println(testEnqueueDequeue());
     System.out.println(testCommonMethods());
     System.out.println(testOpenPosition());
+    System.out.println(testApplicationIteratorOrder());
+    System.out.println(testOpenPositionAggregates());
+    System.out.println(testReplaceTopAndOffer());
+    System.out.println(testBulkConstruction());
+    System.out.println(testAddAll());
+    System.out.println(testParallelShortlister());
+    System.out.println(testConcurrentOpenPosition());
+    System.out.println(testApplicationQueueArity());
+    System.out.println(testOffHeapApplicationQueue());
+    System.out.println(testApplicationLoader());
+    System.out.println(testApplicationValidation());
+    System.out.println(testPositionRegistry());
+    System.out.println(testIndexedApplicationQueue());
+    System.out.println(testDuplicateEmailFilter());
+    System.out.println(testPositionSnapshot());
+    System.out.println(testPositionJournal());
+    System.out.println(testPositionMetrics());
+    System.out.println(testPositionView());
+    System.out.println(testShortlistExport());
+    System.out.println(testSortedArray());
+    System.out.println(testMinMaxApplicationQueue());
+    System.out.println(testScoreRankQueries());
+    System.out.println(testBucketApplicationQueue());
     System.out.println(runAllTests());
   }
 }
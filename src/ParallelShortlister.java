@@ -0,0 +1,208 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: ParallelShortlister.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+
+/**
+ * Builds the shortlist of an open position from a large array of Applications using a
+ * ForkJoinPool. The resulting position is the one obtained by adding every Application to it with
+ * OpenPosition.add(), in order, including which of the Applications having the same score are kept
+ * and where they are stored.
+ *
+ * Only the scores held by a position decide whether add() admits an Application: it is admitted
+ * while there is room, then only if its score is higher than the lowest held score. Since scores
+ * are in the 0 .. 100 range, the array is split into leaves of LEAF_LENGTH Applications, and:
+ * <ol>
+ * <li>the workers count the scores of every leaf,</li>
+ * <li>a scan of these histograms gives the scores held before every leaf, which are the capacity
+ * highest scores of the previous leaves,</li>
+ * <li>the workers replay add() on the scores of every leaf, starting from the scores held before
+ * it, to find the Applications it admits,</li>
+ * <li>these Applications only are added to the position, in order, since the rejected ones never
+ * change it.</li>
+ * </ol>
+ * The last step is sequential, but on uniform scores add() admits about
+ * capacity * (1 + ln(n / capacity)) of n Applications. On increasing scores add() admits every
+ * Application, and the shortlist costs as much as the sequential add() calls.
+ */
+public class ParallelShortlister {
+  private static final int LEAF_LENGTH = 1 << 14; // number of Applications of a leaf
+  private static final int SCORES = Application.MAX_SCORE - Application.MIN_SCORE + 1;
+
+  /**
+   * Creates a new open position with the given capacity, holding the highest-scored of the given
+   * Applications, using the common ForkJoinPool.
+   *
+   * @param positionName the name of the position
+   * @param capacity     the number of vacancies of the position
+   * @param applications the Applications to shortlist
+   * @return a new open position holding the highest-scored of the given Applications
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   * @throws NullPointerException     if the given array or one of its Applications is null
+   */
+  public static OpenPosition shortlist(String positionName, int capacity,
+      Application[] applications) {
+    return shortlist(positionName, capacity, applications, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Creates a new open position with the given capacity, holding the highest-scored of the given
+   * Applications, using the given ForkJoinPool.
+   *
+   * @param positionName the name of the position
+   * @param capacity     the number of vacancies of the position
+   * @param applications the Applications to shortlist
+   * @param pool         the pool running the workers
+   * @return a new open position holding the highest-scored of the given Applications
+   * @throws IllegalArgumentException with a descriptive error message if the capacity is not a
+   *                                  positive integer
+   * @throws NullPointerException     if the given array or one of its Applications is null
+   */
+  public static OpenPosition shortlist(String positionName, int capacity,
+      Application[] applications, ForkJoinPool pool) {
+
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("capacity is invalid");
+    }
+
+    int leaves = (applications.length + LEAF_LENGTH - 1) / LEAF_LENGTH;
+    int[][] held = new int[leaves + 1][]; // held[l] counts the scores held before leaf l
+    int[][] admitted = new int[leaves][]; // admitted[l] lists the indexes admitted in leaf l
+
+    // count the scores of every leaf
+    pool.invoke(new LeafTask(0, leaves, leaf -> held[leaf + 1] = countScores(applications, leaf)));
+
+    // keep the capacity highest scores of the previous leaves
+    held[0] = new int[SCORES];
+    for (int leaf = 0; leaf < leaves; leaf++) {
+      held[leaf + 1] = keepHighest(held[leaf], held[leaf + 1], capacity);
+    }
+
+    // find the Applications admitted in every leaf
+    pool.invoke(new LeafTask(0, leaves,
+        leaf -> admitted[leaf] = replayScores(applications, leaf, held[leaf], capacity)));
+
+    OpenPosition position = new OpenPosition(positionName, capacity);
+    for (int[] indexes : admitted) {
+      for (int i : indexes) {
+        position.add(applications[i]);
+      }
+    }
+    return position;
+  }
+
+  /**
+   * Counts the scores of the Applications of a leaf
+   *
+   * @param applications the Applications to shortlist
+   * @param leaf         the index of the leaf
+   * @return a new array whose element s is the number of Applications of the leaf scoring s
+   * @throws NullPointerException if one of the Applications of the leaf is null
+   */
+  private static int[] countScores(Application[] applications, int leaf) {
+    int[] counts = new int[SCORES];
+    int to = Math.min(applications.length, (leaf + 1) * LEAF_LENGTH);
+    for (int i = leaf * LEAF_LENGTH; i < to; i++) {
+      counts[applications[i].getScore() - Application.MIN_SCORE]++;
+    }
+    return counts;
+  }
+
+  /**
+   * Keeps the capacity highest of the scores held before a leaf and of the scores of that leaf,
+   * which are the scores held after it
+   *
+   * @param held     the counts of the scores held before the leaf
+   * @param counts   the counts of the scores of the leaf, overwritten by the result
+   * @param capacity the number of vacancies of the position
+   * @return counts, holding the counts of the scores held after the leaf
+   */
+  private static int[] keepHighest(int[] held, int[] counts, int capacity) {
+    int remaining = capacity;
+    for (int s = SCORES - 1; s >= 0; s--) {
+      counts[s] = Math.min(held[s] + counts[s], remaining);
+      remaining -= counts[s];
+    }
+    return counts;
+  }
+
+  /**
+   * Replays add() on the scores of the Applications of a leaf, to find the ones it admits
+   *
+   * @param applications the Applications to shortlist
+   * @param leaf         the index of the leaf
+   * @param held         the counts of the scores held before the leaf, modified by this method
+   * @param capacity     the number of vacancies of the position
+   * @return a new array holding the increasing indexes of the Applications admitted in the leaf
+   */
+  private static int[] replayScores(Application[] applications, int leaf, int[] held,
+      int capacity) {
+    int size = 0;
+    int min = SCORES; // lowest held score, SCORES if none
+    for (int s = SCORES - 1; s >= 0; s--) {
+      if (held[s] != 0) {
+        size += held[s];
+        min = s;
+      }
+    }
+
+    int from = leaf * LEAF_LENGTH;
+    int to = Math.min(applications.length, from + LEAF_LENGTH);
+    int[] indexes = new int[to - from];
+    int count = 0;
+    for (int i = from; i < to; i++) {
+      int s = applications[i].getScore() - Application.MIN_SCORE;
+      if (size < capacity) { // there is room
+        size++;
+        min = Math.min(min, s);
+      } else if (s > min) { // full: an Application having the lowest held score is evicted
+        held[min]--;
+      } else {
+        continue; // rejected
+      }
+      held[s]++;
+      while (held[min] == 0) {
+        min++;
+      }
+      indexes[count++] = i;
+    }
+    return Arrays.copyOf(indexes, count);
+  }
+
+  /**
+   * Runs an action on a range of leaves, splitting the range in two halves while it holds more
+   * than one leaf.
+   */
+  private static class LeafTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int from; // index of the first leaf of the range, inclusive
+    private final int to; // index of the last leaf of the range, exclusive
+    private final IntConsumer action; // the action run on every leaf
+
+    private LeafTask(int from, int to, IntConsumer action) {
+      this.from = from;
+      this.to = to;
+      this.action = action;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= 1) {
+        for (int leaf = from; leaf < to; leaf++) {
+          action.accept(leaf);
+        }
+        return;
+      }
+
+      int middle = (from + to) >>> 1;
+      invokeAll(new LeafTask(from, middle, action), new LeafTask(middle, to, action));
+    }
+  }
+}
@@ -0,0 +1,510 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: PositionJournal.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of the changes made to an open position, so that the changes made since its
+ * last snapshot survive a restart. A journaled position records an entry for every admitted,
+ * evicted, rejected, withdrawn and re-scored Application; replaying the journal onto the snapshot
+ * it follows restores the position. A new journal should be started after each snapshot.
+ *
+ * Recording an entry only encodes it into a preallocated buffer. A background thread commits the
+ * buffered entries as a group, every flush interval or when the buffer fills up, writing them with
+ * a single write to the file while new entries go to a second buffer. The sync policy chooses
+ * whether each group commit also forces the file to the disk.
+ *
+ * Each entry is framed as its length, its type, the score, the length-prefixed UTF-8 name and
+ * email, and a CRC32C checksum of these fields, so that a torn last entry is detected.
+ */
+public class PositionJournal implements AutoCloseable {
+  // types of the entries
+  public static final int ADMIT = 1; // an Application was admitted
+  public static final int EVICT = 2; // an Application was evicted by an admitted one
+  public static final int REJECT = 3; // an Application was not admitted
+  public static final int WITHDRAW = 4; // an Application was withdrawn
+  public static final int RESCORE = 5; // an Application was re-scored, entry has the new score
+
+  /**
+   * Whether group commits force the file to the disk
+   */
+  public enum Sync {
+    NEVER, // the operating system writes the file when it wants, so a crash of the machine may
+           // lose the last commits
+    EVERY_COMMIT // every group commit is forced to the disk before being acknowledged
+  }
+
+  private static final int DEFAULT_BUFFER_LENGTH = 1 << 20; // length of each entry buffer
+  private static final int FIXED_ENTRY_LENGTH = 5 * Integer.BYTES + 1; // fields but strings
+
+  private final FileChannel channel; // the journal file
+  private final Sync sync; // whether commits force the file to the disk
+  private final long flushIntervalNanos; // longest time an entry waits to be committed
+  private final CRC32C checksum; // checksum of the entry being recorded
+  private final Thread flusher; // the thread committing the entries
+
+  private final ReentrantLock lock; // guards the fields below
+  private final Condition commitNeeded; // signals the flusher that entries are waited for
+  private final Condition commitDone; // signals the threads waiting for a commit
+  private ByteBuffer active; // entries recorded since the last commit
+  private ByteBuffer committing; // entries being written by the flusher
+  private long recorded; // number of bytes recorded
+  private long committed; // number of bytes written, and forced with Sync.EVERY_COMMIT
+  private long requested; // number of bytes whose commit is waited for
+  private boolean closed; // whether this journal was closed
+  private IOException failure; // the failure of the last commit, if any
+
+  /**
+   * Opens the given journal file, creating it if needed, to append entries to it. Commits happen
+   * at least every 5 milliseconds.
+   *
+   * @param file the journal file
+   * @param sync whether commits force the file to the disk
+   * @throws IOException if the file cannot be opened
+   */
+  public PositionJournal(Path file, Sync sync) throws IOException {
+    this(file, sync, 5, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Opens the given journal file, creating it if needed, to append entries to it
+   *
+   * @param file          the journal file
+   * @param sync          whether commits force the file to the disk
+   * @param flushInterval longest time an entry waits to be committed
+   * @param unit          the unit of the flush interval
+   * @throws IllegalArgumentException with a descriptive error message if the flush interval is
+   *                                  not positive
+   * @throws IOException              if the file cannot be opened
+   */
+  public PositionJournal(Path file, Sync sync, long flushInterval, TimeUnit unit)
+      throws IOException {
+    if (flushInterval <= 0) {
+      throw new IllegalArgumentException("flush interval is invalid");
+    }
+
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.APPEND);
+    this.sync = sync;
+    this.flushIntervalNanos = unit.toNanos(flushInterval);
+    this.checksum = new CRC32C();
+    this.lock = new ReentrantLock();
+    this.commitNeeded = this.lock.newCondition();
+    this.commitDone = this.lock.newCondition();
+    this.active = ByteBuffer.allocate(DEFAULT_BUFFER_LENGTH);
+    this.committing = ByteBuffer.allocate(DEFAULT_BUFFER_LENGTH);
+
+    this.flusher = new Thread(this::commitLoop, "position-journal-flusher");
+    this.flusher.setDaemon(true);
+    this.flusher.start();
+  }
+
+  /**
+   * Records an entry of the given type for the given Application. Only waits for a commit if the
+   * buffer is full.
+   *
+   * @param type        the type of the entry, such as ADMIT
+   * @param application the Application of the entry
+   * @throws IllegalStateException if this journal is closed
+   * @throws UncheckedIOException  if a previous commit failed
+   */
+  void record(int type, Application application) {
+    String name = application.getName();
+    String email = application.getEmail();
+    int maxLength = FIXED_ENTRY_LENGTH + 3 * (name.length() + email.length());
+
+    this.lock.lock();
+    try {
+      checkOpen();
+
+      // wait for the flusher to make room, unless the entry does not even fit an empty buffer
+      while (this.active.remaining() < maxLength) {
+        if (this.active.position() == 0) {
+          this.active = ByteBuffer.allocate(maxLength);
+          break;
+        }
+        this.requested = this.recorded;
+        this.commitNeeded.signal();
+        this.commitDone.awaitUninterruptibly();
+        checkOpen();
+      }
+
+      // length, type, score, name, email, checksum
+      int start = this.active.position();
+      this.active.position(start + Integer.BYTES);
+      this.active.put((byte) type);
+      this.active.putInt(application.getScore());
+      putUtf8(name);
+      putUtf8(email);
+      int length = this.active.position() - start - Integer.BYTES;
+      this.active.putInt(start, length);
+
+      this.checksum.reset();
+      this.checksum.update(this.active.array(), start + Integer.BYTES, length);
+      this.active.putInt((int) this.checksum.getValue());
+
+      this.recorded += this.active.position() - start;
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Waits until every entry recorded so far is committed, and forced to the disk unless the sync
+   * policy is NEVER
+   *
+   * @throws IOException           if a commit failed
+   * @throws IllegalStateException if this journal is closed
+   */
+  public void commit() throws IOException {
+    this.lock.lock();
+    try {
+      if (this.closed) {
+        throw new IllegalStateException("journal is closed");
+      }
+
+      long target = this.recorded;
+      this.requested = Math.max(this.requested, target);
+      this.commitNeeded.signal();
+      while (this.committed < target && this.failure == null) {
+        this.commitDone.awaitUninterruptibly();
+      }
+      if (this.failure != null) {
+        throw this.failure;
+      }
+    } finally {
+      this.lock.unlock();
+    }
+  }
+
+  /**
+   * Commits the recorded entries and closes the journal file. The positions using this journal
+   * must not record any entry anymore.
+   *
+   * @throws IOException if a commit failed or if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    this.lock.lock();
+    try {
+      if (this.closed) {
+        return;
+      }
+      this.closed = true;
+      this.commitNeeded.signal();
+    } finally {
+      this.lock.unlock();
+    }
+
+    boolean interrupted = false;
+    while (this.flusher.isAlive()) {
+      try {
+        this.flusher.join();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+
+    this.channel.close();
+    if (this.failure != null) {
+      throw this.failure;
+    }
+  }
+
+  /**
+   * Replays the entries of the given journal file onto the given position, which must be in the
+   * state the journal started from, such as restored from the snapshot it follows. A torn last
+   * entry, left by a crash during a write, is cut from the file so that new entries can be
+   * appended. The position must not be journaled while replaying. Rejections are replayed too, so
+   * that a duplicate filter restored with the snapshot records the rejected emails again.
+   *
+   * @param file     the journal file
+   * @param position the position to replay the entries onto
+   * @return the number of replayed entries
+   * @throws IOException if the file cannot be read, or if its entries do not match the position
+   */
+  public static int replay(Path file, OpenPosition position) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ,
+        StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocate(DEFAULT_BUFFER_LENGTH);
+      buffer.limit(0);
+      CRC32C checksum = new CRC32C();
+      long size = channel.size();
+      long valid = 0; // length of the complete entries
+      int replayed = 0;
+      Application evicted = null; // evicted by the last replayed ADMIT entry, until its EVICT
+
+      while (true) {
+        // read the length of the next entry, then the whole entry
+        buffer = fill(channel, buffer, Integer.BYTES);
+        if (buffer.remaining() < Integer.BYTES) {
+          break;
+        }
+        int length = buffer.getInt(buffer.position());
+        if (length < FIXED_ENTRY_LENGTH - 2 * Integer.BYTES
+            || length > size - valid - 2 * Integer.BYTES) {
+          break; // torn or corrupted
+        }
+        buffer = fill(channel, buffer, length + 2 * Integer.BYTES);
+
+        int start = buffer.position() + Integer.BYTES;
+        checksum.reset();
+        checksum.update(buffer.array(), start, length);
+        if (buffer.getInt(start + length) != (int) checksum.getValue()) {
+          break; // torn or corrupted
+        }
+
+        // decode and apply the entry
+        buffer.position(start);
+        int type = buffer.get();
+        int score = buffer.getInt();
+        String name = getUtf8(buffer);
+        String email = getUtf8(buffer);
+        buffer.position(start + length + Integer.BYTES);
+        evicted = apply(position, type, name, email, score, evicted);
+
+        valid += length + 2 * Integer.BYTES;
+        replayed++;
+      }
+
+      if (valid < size) {
+        channel.truncate(valid);
+      }
+      return replayed;
+    }
+  }
+
+  /**
+   * Applies a replayed entry to the given position. An ADMIT entry made by a full position must be
+   * followed by the EVICT entry of the Application its replay evicted, which was the lowest of the
+   * position, so that a position restored with ties in another order is not silently different.
+   *
+   * @param position the position to replay the entry onto
+   * @param type     the type of the entry
+   * @param name     the name of the Application of the entry
+   * @param email    the email of the Application of the entry
+   * @param score    the score of the Application of the entry
+   * @param evicted  the Application evicted by replaying the previous entry, or null
+   * @return the Application evicted by replaying this entry, or null
+   * @throws IOException if the entry does not match the position, or if the position does not
+   *                     support withdrawals and re-scores when the entry is one of them
+   */
+  private static Application apply(OpenPosition position, int type, String name, String email,
+      int score, Application evicted) throws IOException {
+    if (evicted != null && type != EVICT) {
+      throw new IOException("journal does not match the position");
+    }
+
+    boolean applied;
+    Application evicting = null;
+    try {
+      switch (type) {
+        case ADMIT:
+          Application application = Application.tryCreate(name, email, score);
+          Application lowest = position.isFull() ? position.getQueue().peek() : null;
+          applied = application != null && position.add(application);
+          evicting = applied ? lowest : null;
+          break;
+        case REJECT: // rejected again, recording the email in the duplicate filter, if any
+          Application rejected = Application.tryCreate(name, email, score);
+          applied = rejected != null && !position.add(rejected);
+          break;
+        case WITHDRAW:
+          applied = position.withdraw(email);
+          break;
+        case RESCORE:
+          applied = position.rescore(email, score);
+          break;
+        case EVICT: // replaying the ADMIT entry before must have evicted the same Application
+          applied = evicted != null && evicted.getEmail().equals(email)
+              && evicted.getScore() == score;
+          break;
+        default:
+          applied = false;
+      }
+    } catch (UnsupportedOperationException | IllegalArgumentException e) {
+      throw new IOException("journal does not match the position", e);
+    }
+
+    if (!applied) {
+      throw new IOException("journal does not match the position");
+    }
+    return evicting;
+  }
+
+  /**
+   * Makes sure that the given buffer holds at least the given number of unparsed bytes, unless the
+   * file ends before
+   *
+   * @param channel the file being read
+   * @param buffer  the buffer holding the unparsed bytes
+   * @param length  the number of bytes about to be parsed
+   * @return the buffer, or a larger one holding the same unparsed bytes
+   * @throws IOException if the file cannot be read
+   */
+  private static ByteBuffer fill(FileChannel channel, ByteBuffer buffer, int length)
+      throws IOException {
+    if (buffer.remaining() >= length) {
+      return buffer;
+    }
+
+    if (buffer.capacity() < length) {
+      ByteBuffer grown = ByteBuffer.allocate(Math.max(length, buffer.capacity() * 2));
+      grown.put(buffer);
+      buffer = grown;
+    } else {
+      buffer.compact();
+    }
+
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer) < 0) {
+        break; // end of the file
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Reads a length-prefixed UTF-8 String from the given buffer
+   *
+   * @param buffer the buffer holding the String
+   * @return the read String
+   */
+  private static String getUtf8(ByteBuffer buffer) {
+    int length = buffer.getInt();
+    String string = new String(buffer.array(), buffer.position(), length, StandardCharsets.UTF_8);
+    buffer.position(buffer.position() + length);
+    return string;
+  }
+
+  /**
+   * Encodes the given String into the active buffer as its length in bytes followed by its UTF-8
+   * bytes, without allocating. Unpaired surrogates are encoded as '?', as String.getBytes() does.
+   *
+   * @param string the String to encode, whose room was already checked
+   */
+  private void putUtf8(String string) {
+    byte[] bytes = this.active.array();
+    int start = this.active.position();
+    int p = start + Integer.BYTES;
+
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (c < 0x80) {
+        bytes[p++] = (byte) c;
+      } else if (c < 0x800) {
+        bytes[p++] = (byte) (0xC0 | c >> 6);
+        bytes[p++] = (byte) (0x80 | c & 0x3F);
+      } else if (Character.isHighSurrogate(c) && i + 1 < string.length()
+          && Character.isLowSurrogate(string.charAt(i + 1))) {
+        int codePoint = Character.toCodePoint(c, string.charAt(++i));
+        bytes[p++] = (byte) (0xF0 | codePoint >> 18);
+        bytes[p++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+        bytes[p++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+        bytes[p++] = (byte) (0x80 | codePoint & 0x3F);
+      } else if (Character.isSurrogate(c)) {
+        bytes[p++] = '?';
+      } else {
+        bytes[p++] = (byte) (0xE0 | c >> 12);
+        bytes[p++] = (byte) (0x80 | c >> 6 & 0x3F);
+        bytes[p++] = (byte) (0x80 | c & 0x3F);
+      }
+    }
+
+    this.active.putInt(start, p - start - Integer.BYTES);
+    this.active.position(p);
+  }
+
+  /**
+   * Checks that entries can still be recorded
+   *
+   * @throws IllegalStateException if this journal is closed
+   * @throws UncheckedIOException  if a previous commit failed
+   */
+  private void checkOpen() {
+    if (this.failure != null) {
+      throw new UncheckedIOException(this.failure);
+    }
+    if (this.closed) {
+      throw new IllegalStateException("journal is closed");
+    }
+  }
+
+  /**
+   * Body of the flusher thread: swaps the buffers and writes the recorded entries, every flush
+   * interval or as soon as a commit is waited for, until this journal is closed
+   */
+  private void commitLoop() {
+    while (true) {
+      ByteBuffer batch;
+      long end;
+
+      this.lock.lock();
+      try {
+        if (!this.closed && this.requested <= this.committed) {
+          this.commitNeeded.awaitNanos(this.flushIntervalNanos);
+        }
+        if (this.active.position() == 0) {
+          if (this.closed) {
+            return;
+          }
+          continue;
+        }
+
+        batch = this.active;
+        this.active = this.committing;
+        this.committing = batch;
+        end = this.recorded;
+      } catch (InterruptedException e) {
+        continue; // only close() stops the flusher
+      } finally {
+        this.lock.unlock();
+      }
+
+      IOException error = null;
+      try {
+        batch.flip();
+        while (batch.hasRemaining()) {
+          this.channel.write(batch);
+        }
+        if (this.sync == Sync.EVERY_COMMIT) {
+          this.channel.force(false);
+        }
+      } catch (IOException e) {
+        error = e;
+      }
+      batch.clear();
+
+      this.lock.lock();
+      try {
+        if (error != null) {
+          this.failure = error;
+        } else {
+          this.committed = end;
+        }
+        this.commitDone.signalAll();
+        if (error != null) {
+          return;
+        }
+      } finally {
+        this.lock.unlock();
+      }
+    }
+  }
+}
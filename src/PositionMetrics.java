@@ -0,0 +1,206 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: PositionMetrics.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and histograms of the hot paths of an open position: the outcomes of add(), the number
+ * of levels moved by each percolation of its ApplicationQueue, and the latency of add(). Counters
+ * are striped LongAdders, so that recording from several threads does not contend on one cache
+ * line. The metrics can be registered as an MXBean to be read through JMX.
+ *
+ * Positions are instrumented by default only when the openposition.metrics system property is
+ * true, read into the ENABLED constant. Otherwise positions have no PositionMetrics, and every
+ * recording site only tests a null field. The percolations are only measured for an
+ * ApplicationQueue created by the position, never for a queue given to its constructor.
+ */
+public class PositionMetrics implements PositionMetricsMXBean {
+  // whether positions are instrumented, read once from -Dopenposition.metrics=true
+  public static final boolean ENABLED = Boolean.getBoolean("openposition.metrics");
+
+  private static final int SIFT_DEPTH_BUCKETS = 32; // levels of a heap of up to 2^31 elements
+  private static final int LATENCY_BUCKETS = 64; // powers of two of a long number of nanoseconds
+
+  private final OpenPosition position; // the measured position
+  private final LongAdder admitted; // number of admitted Applications
+  private final LongAdder rejected; // number of rejected Applications
+  private final LongAdder evicted; // number of evicted Applications
+  private final LongAdder[] siftDepths; // siftDepths[d] counts percolations moving d levels
+  private final LongAdder[] addLatencies; // addLatencies[b] counts add() in [2^b, 2^(b+1)) ns
+
+  /**
+   * Creates new empty metrics of the given position
+   *
+   * @param position the measured position
+   */
+  PositionMetrics(OpenPosition position) {
+    this.position = position;
+    this.admitted = new LongAdder();
+    this.rejected = new LongAdder();
+    this.evicted = new LongAdder();
+    this.siftDepths = newAdders(SIFT_DEPTH_BUCKETS);
+    this.addLatencies = newAdders(LATENCY_BUCKETS);
+  }
+
+  /**
+   * Counts an outcome of the measured position
+   *
+   * @param type the outcome, PositionJournal.ADMIT, REJECT or EVICT, other types being ignored
+   */
+  void record(int type) {
+    switch (type) {
+      case PositionJournal.ADMIT:
+        this.admitted.increment();
+        break;
+      case PositionJournal.REJECT:
+        this.rejected.increment();
+        break;
+      case PositionJournal.EVICT:
+        this.evicted.increment();
+        break;
+      default:
+    }
+  }
+
+  /**
+   * Counts Applications rejected without reaching the measured position
+   *
+   * @param count the number of rejected Applications
+   */
+  void recordRejected(int count) {
+    this.rejected.add(count);
+  }
+
+  /**
+   * Counts a percolation of the heap of the measured position
+   *
+   * @param levels the number of levels the percolated Application moved
+   */
+  void recordSift(int levels) {
+    this.siftDepths[Math.min(levels, SIFT_DEPTH_BUCKETS - 1)].increment();
+  }
+
+  /**
+   * Counts a call to add() of the measured position
+   *
+   * @param nanos the duration of the call in nanoseconds
+   */
+  void recordAdd(long nanos) {
+    this.addLatencies[Math.max(0, 63 - Long.numberOfLeadingZeros(nanos))].increment();
+  }
+
+  /**
+   * Registers these metrics with the platform MBean server, under the name
+   * OpenPosition:type=PositionMetrics,name=[the quoted position name]
+   *
+   * @return the name under which these metrics are registered
+   * @throws JMException if these metrics cannot be registered, for instance because a position
+   *                     having the same name is already registered
+   */
+  public ObjectName register() throws JMException {
+    ObjectName name = new ObjectName("OpenPosition:type=PositionMetrics,name="
+        + ObjectName.quote(String.valueOf(this.position.getPositionName())));
+    ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+    return name;
+  }
+
+  /**
+   * Unregisters the metrics registered under the given name from the platform MBean server
+   *
+   * @param name the name returned by register()
+   * @throws JMException if no metrics are registered under this name
+   */
+  public static void unregister(ObjectName name) throws JMException {
+    ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+  }
+
+  @Override
+  public String getPositionName() {
+    return this.position.getPositionName();
+  }
+
+  @Override
+  public long getAdmittedCount() {
+    return this.admitted.sum();
+  }
+
+  @Override
+  public long getRejectedCount() {
+    return this.rejected.sum();
+  }
+
+  @Override
+  public long getEvictedCount() {
+    return this.evicted.sum();
+  }
+
+  /**
+   * Returns the score an Application must beat to be admitted. Read without synchronization, so
+   * the value may be slightly stale while the position is being modified.
+   *
+   * @return the lowest admitted score if the position is full, Application.MIN_SCORE - 1 otherwise
+   */
+  @Override
+  public int getThreshold() {
+    return this.position.getThreshold();
+  }
+
+  /**
+   * Returns the number of admitted Applications currently held by the position. Read without
+   * synchronization, so the value may be slightly stale while the position is being modified.
+   *
+   * @return the number of held Applications
+   */
+  @Override
+  public int getOccupancy() {
+    return this.position.getApplicationCount();
+  }
+
+  @Override
+  public int getCapacity() {
+    return this.position.getCapacity();
+  }
+
+  @Override
+  public long[] getSiftDepthHistogram() {
+    return sums(this.siftDepths);
+  }
+
+  @Override
+  public long[] getAddLatencyHistogram() {
+    return sums(this.addLatencies);
+  }
+
+  /**
+   * Creates the given number of LongAdders
+   *
+   * @param count the number of LongAdders
+   * @return a new array of count new LongAdders
+   */
+  private static LongAdder[] newAdders(int count) {
+    LongAdder[] adders = new LongAdder[count];
+    for (int i = 0; i < count; i++) {
+      adders[i] = new LongAdder();
+    }
+    return adders;
+  }
+
+  /**
+   * Returns the current sum of each of the given LongAdders
+   *
+   * @param adders the LongAdders of a histogram
+   * @return a new array of their sums
+   */
+  private static long[] sums(LongAdder[] adders) {
+    long[] sums = new long[adders.length];
+    for (int i = 0; i < adders.length; i++) {
+      sums[i] = adders[i].sum();
+    }
+    return sums;
+  }
+}
@@ -0,0 +1,76 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: PositionMetricsMXBean.java
+///////////////////////////////////////////////////////////////////////////////
+
+/**
+ * Management interface exposing the metrics of an open position through JMX.
+ *
+ * @see PositionMetrics
+ */
+public interface PositionMetricsMXBean {
+
+  /**
+   * Returns the name of the measured position
+   *
+   * @return the name of the position
+   */
+  String getPositionName();
+
+  /**
+   * Returns the number of Applications admitted so far
+   *
+   * @return the number of admitted Applications
+   */
+  long getAdmittedCount();
+
+  /**
+   * Returns the number of Applications rejected so far, duplicates included
+   *
+   * @return the number of rejected Applications
+   */
+  long getRejectedCount();
+
+  /**
+   * Returns the number of Applications evicted so far by higher-scored ones
+   *
+   * @return the number of evicted Applications
+   */
+  long getEvictedCount();
+
+  /**
+   * Returns the score an Application must beat to be admitted
+   *
+   * @return the lowest admitted score if the position is full, Application.MIN_SCORE - 1 otherwise
+   */
+  int getThreshold();
+
+  /**
+   * Returns the number of admitted Applications currently held by the position
+   *
+   * @return the number of held Applications
+   */
+  int getOccupancy();
+
+  /**
+   * Returns the number of vacancies of the position, taken or not
+   *
+   * @return the capacity of the position
+   */
+  int getCapacity();
+
+  /**
+   * Returns the histogram of the number of levels moved by each percolation of the heap
+   *
+   * @return a new array whose element at index d counts the percolations moving d levels
+   */
+  long[] getSiftDepthHistogram();
+
+  /**
+   * Returns the histogram of the latency of add(), in power-of-two buckets of nanoseconds
+   *
+   * @return a new array whose element at index b counts the calls taking from 2^b to 2^(b+1) - 1
+   *         nanoseconds, index 0 also counting the calls measured at 0 nanoseconds
+   */
+  long[] getAddLatencyHistogram();
+}
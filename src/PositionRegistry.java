@@ -0,0 +1,219 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: PositionRegistry.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Owns many open positions, keyed by their names, and routes Applications to them. Positions are
+ * spread over shards by the hash of their name, and every shard is owned by a single writer thread
+ * which is the only one to ever touch its positions. Positions therefore need no lock, shards
+ * scale across cores, and the operations submitted for a position are applied in order.
+ *
+ * Every operation is asynchronous and returns a CompletableFuture. The bulk queries gather the
+ * views of every shard without stopping the others.
+ */
+public class PositionRegistry implements AutoCloseable {
+  private final Shard[] shards; // the shards owning the positions
+
+  /**
+   * Creates a new empty PositionRegistry with one shard per available processor
+   */
+  public PositionRegistry() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Creates a new empty PositionRegistry with the given number of shards
+   *
+   * @param shardCount the number of shards, i.e. of writer threads
+   * @throws IllegalArgumentException with a descriptive error message if the number of shards is
+   *                                  not a positive integer
+   */
+  public PositionRegistry(int shardCount) {
+    if (shardCount <= 0) {
+      throw new IllegalArgumentException("shard count is invalid");
+    }
+
+    this.shards = new Shard[shardCount];
+    for (int i = 0; i < shardCount; i++) {
+      this.shards[i] = new Shard("position-registry-shard-" + i);
+    }
+  }
+
+  /**
+   * Creates a new open position with the given name and capacity in this registry
+   *
+   * @param positionName the name of the position
+   * @param capacity     the number of vacancies of the position
+   * @return a future completed with true if the position was created, false if a position with
+   *         this name already exists, or completed exceptionally with an IllegalArgumentException
+   *         if the capacity is not a positive integer
+   * @throws NullPointerException if the given name is null
+   */
+  public CompletableFuture<Boolean> createPosition(String positionName, int capacity) {
+    Shard shard = shardOf(positionName);
+    return CompletableFuture.supplyAsync(() -> {
+      if (shard.positions.containsKey(positionName)) {
+        return false;
+      }
+      shard.positions.put(positionName, new OpenPosition(positionName, capacity));
+      return true;
+    }, shard.executor);
+  }
+
+  /**
+   * Adds the given Application to the position having the given name
+   *
+   * @param positionName the name of the position
+   * @param application  the Application to add
+   * @return a future completed with the result of OpenPosition.add(), or completed exceptionally
+   *         with an IllegalArgumentException if there is no such position
+   * @throws NullPointerException if the given name is null
+   */
+  public CompletableFuture<Boolean> route(String positionName, Application application) {
+    return query(positionName, position -> position.add(application));
+  }
+
+  /**
+   * Adds the given Applications to the position having the given name
+   *
+   * @param positionName the name of the position
+   * @param applications the Applications to add
+   * @return a future completed with the result of OpenPosition.addAll(), or completed
+   *         exceptionally with an IllegalArgumentException if there is no such position
+   * @throws NullPointerException if the given name is null
+   */
+  public CompletableFuture<BatchResult> routeAll(String positionName,
+      Application[] applications) {
+    return query(positionName, position -> position.addAll(applications));
+  }
+
+  /**
+   * Applies the given function to the position having the given name, on the thread owning it.
+   * The function must not keep a reference to the position.
+   *
+   * @param <T>          the type of the result of the function
+   * @param positionName the name of the position
+   * @param function     the function to apply
+   * @return a future completed with the result of the function, or completed exceptionally with
+   *         an IllegalArgumentException if there is no such position
+   * @throws NullPointerException if the given name is null
+   */
+  public <T> CompletableFuture<T> query(String positionName, Function<OpenPosition, T> function) {
+    Shard shard = shardOf(positionName);
+    return CompletableFuture.supplyAsync(() -> {
+      OpenPosition position = shard.positions.get(positionName);
+      if (position == null) {
+        throw new IllegalArgumentException("no position named " + positionName);
+      }
+      return function.apply(position);
+    }, shard.executor);
+  }
+
+  /**
+   * Returns the number of admitted Applications of every position
+   *
+   * @return a future completed with a new map from position names to their number of admitted
+   *         Applications
+   */
+  public CompletableFuture<Map<String, Integer>> getApplicationCounts() {
+    return collect(OpenPosition::getApplicationCount);
+  }
+
+  /**
+   * Returns the score an Application must beat to be admitted by every position
+   *
+   * @return a future completed with a new map from position names to their lowest admitted score
+   *         if they are full, or Application.MIN_SCORE - 1 if they are not
+   */
+  public CompletableFuture<Map<String, Integer>> getThresholds() {
+    return collect(
+        position -> position.isFull() ? position.getMinScore() : Application.MIN_SCORE - 1);
+  }
+
+  /**
+   * Applies the given function to every position, each shard on its own thread, and gathers the
+   * results.
+   *
+   * @param <T>      the type of the result of the function
+   * @param function the function to apply
+   * @return a future completed with a new map from position names to the results
+   */
+  public <T> CompletableFuture<Map<String, T>> collect(Function<OpenPosition, T> function) {
+    List<CompletableFuture<Map<String, T>>> views = new ArrayList<>(this.shards.length);
+    for (Shard shard : this.shards) {
+      views.add(CompletableFuture.supplyAsync(() -> {
+        Map<String, T> view = new HashMap<>();
+        for (Map.Entry<String, OpenPosition> entry : shard.positions.entrySet()) {
+          view.put(entry.getKey(), function.apply(entry.getValue()));
+        }
+        return view;
+      }, shard.executor));
+    }
+
+    return CompletableFuture.allOf(views.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+      Map<String, T> all = new HashMap<>();
+      for (CompletableFuture<Map<String, T>> view : views) {
+        all.putAll(view.join());
+      }
+      return all;
+    });
+  }
+
+  /**
+   * Stops the writer threads once the operations already submitted are done. If interrupted while
+   * waiting, returns early with the interrupt status of the current thread set.
+   */
+  @Override
+  public void close() {
+    for (Shard shard : this.shards) {
+      shard.executor.shutdown();
+    }
+    try {
+      for (Shard shard : this.shards) {
+        shard.executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Returns the shard owning the position having the given name
+   *
+   * @param positionName the name of the position
+   * @return the shard owning it
+   * @throws NullPointerException if the given name is null
+   */
+  private Shard shardOf(String positionName) {
+    int hash = positionName.hashCode();
+    return this.shards[Math.floorMod(hash ^ (hash >>> 16), this.shards.length)];
+  }
+
+  /**
+   * A shard of the registry: positions only accessed from a single writer thread.
+   */
+  private static class Shard {
+    private final ExecutorService executor; // the single writer thread of this shard
+    private final Map<String, OpenPosition> positions; // positions owned by this shard
+
+    private Shard(String threadName) {
+      this.executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, threadName);
+        thread.setDaemon(true);
+        return thread;
+      });
+      this.positions = new HashMap<>();
+    }
+  }
+}
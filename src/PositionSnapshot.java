@@ -0,0 +1,499 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: PositionSnapshot.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Saves an open position to a compact binary file, and restores it without adding its
+ * Applications one by one. The Applications are saved in the stored order of their priority
+ * queue, so that restoring appends each of them as-is in O(n) time instead of percolating it.
+ *
+ * The file is made of big-endian ints and longs and length-prefixed UTF-8 strings:
+ * <ul>
+ * <li>header: MAGIC, VERSION, capacity, arity of the heap, number of Applications, kind of
+ * priority queue, position name, then the CRC32C checksum of these fields, checked before
+ * allocating the queue</li>
+ * <li>duplicate filter: the number of longs of its Bloom filter, 0 if the position has no filter,
+ * then its maximum number of entries, its size, whether it is saturated, its number of entries,
+ * the longs of its Bloom filter and its hashes</li>
+ * <li>one entry per Application, in the stored order of the priority queue: score, name,
+ * email</li>
+ * <li>trailer: CRC32C checksum of all the previous bytes</li>
+ * </ul>
+ * The stored order of an ApplicationQueue is its array-heap order. A BucketApplicationQueue is
+ * saved bucket by bucket and a MinMaxApplicationQueue in array order, so that Applications having
+ * the same score are restored in the same order and evicted in the same order when a journal is
+ * replayed. A restored position stores its Applications in a priority queue of the same kind, so
+ * that an IndexedApplicationQueue can replay withdrawals and re-scores, and filters duplicates
+ * with the saved filter. Priority queues of other classes are saved in iteration order, which is
+ * a valid heap, and restored as ApplicationQueues. Snapshots of version 1, which have neither
+ * the kind of queue nor a filter, are restored as ApplicationQueues without a filter.
+ */
+public class PositionSnapshot {
+  public static final int MAGIC = 0x4F50534E; // "OPSN", first int of every snapshot
+  public static final int VERSION = 2; // version of the format written by this class
+
+  // kinds of priority queues, saved so that a restored position supports the same operations
+  private static final int HEAP = 0; // ApplicationQueue, or a priority queue of another class
+  private static final int INDEXED = 1; // IndexedApplicationQueue
+  private static final int BUCKET = 2; // BucketApplicationQueue
+  private static final int OFF_HEAP = 3; // OffHeapApplicationQueue
+  private static final int MIN_MAX = 4; // MinMaxApplicationQueue
+
+  private static final int BUFFER_LENGTH = 1 << 16; // initial length of the I/O buffer
+  private static final int HEADER_LENGTH = 7 * Integer.BYTES; // ints before the position name
+
+  private final FileChannel channel; // the file being written or read
+  private final CRC32C checksum; // checksum of the bytes written or read so far
+  private ByteBuffer buffer; // bytes waiting to be written, or read and not parsed yet
+  private long remaining; // number of bytes of the file left to read before the trailer
+
+  /**
+   * Creates a new PositionSnapshot writing to or reading from the given channel
+   *
+   * @param channel the file being written or read
+   */
+  private PositionSnapshot(FileChannel channel) {
+    this.channel = channel;
+    this.checksum = new CRC32C();
+    this.buffer = ByteBuffer.allocate(BUFFER_LENGTH);
+  }
+
+  /**
+   * Saves the given position to the given file. The snapshot is first written next to the file,
+   * then moved in place, so that the file always holds a complete snapshot.
+   *
+   * @param position the position to save
+   * @param file     the file to write
+   * @throws IOException if the file cannot be written
+   */
+  public static void write(OpenPosition position, Path file) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      new PositionSnapshot(channel).writePosition(position);
+      channel.force(true);
+    }
+
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Restores the position saved in the given file
+   *
+   * @param file the file to read
+   * @return a new open position holding the saved Applications in the saved order
+   * @throws IOException if the file cannot be read, or if it is not a snapshot of a supported
+   *                     version, or if it is corrupted
+   */
+  public static OpenPosition read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return new PositionSnapshot(channel).readPosition();
+    }
+  }
+
+  /**
+   * Writes the header, the entries and the trailer of the given position
+   *
+   * @param position the position to save
+   * @throws IOException if the file cannot be written
+   */
+  private void writePosition(OpenPosition position) throws IOException {
+    PriorityQueueADT<Application> queue = position.getQueue();
+
+    int capacity = position.getCapacity();
+    int arity = queue instanceof ApplicationQueue ? ((ApplicationQueue) queue).getArity() : 2;
+    int kind = queueKind(queue);
+    byte[] positionName = position.getPositionName().getBytes(StandardCharsets.UTF_8);
+
+    ensureWritable(HEADER_LENGTH + positionName.length);
+    this.buffer.putInt(MAGIC);
+    this.buffer.putInt(VERSION);
+    this.buffer.putInt(capacity);
+    this.buffer.putInt(arity);
+    this.buffer.putInt(queue.size());
+    this.buffer.putInt(kind);
+    this.buffer.putInt(positionName.length);
+    this.buffer.put(positionName);
+    ensureWritable(Integer.BYTES);
+    this.buffer.putInt(headerChecksum(VERSION, capacity, arity, queue.size(), kind, positionName));
+    writeFilter(position.getFilter());
+
+    for (Application a : queue.storedOrder()) {
+      writeApplication(a);
+    }
+
+    flush();
+    this.buffer.putInt((int) this.checksum.getValue());
+    this.buffer.flip();
+    while (this.buffer.hasRemaining()) {
+      this.channel.write(this.buffer);
+    }
+  }
+
+  /**
+   * Returns the kind of the given priority queue
+   *
+   * @param queue the priority queue of a position
+   * @return INDEXED, BUCKET, OFF_HEAP or MIN_MAX for these classes, HEAP otherwise
+   */
+  private static int queueKind(PriorityQueueADT<Application> queue) {
+    if (queue instanceof IndexedApplicationQueue) {
+      return INDEXED;
+    } else if (queue instanceof BucketApplicationQueue) {
+      return BUCKET;
+    } else if (queue instanceof OffHeapApplicationQueue) {
+      return OFF_HEAP;
+    } else if (queue instanceof MinMaxApplicationQueue) {
+      return MIN_MAX;
+    }
+    return HEAP;
+  }
+
+  /**
+   * Creates an empty priority queue of the given kind
+   *
+   * @param kind     the saved kind of the priority queue
+   * @param capacity the saved capacity
+   * @param arity    the saved arity of the heap
+   * @return a new empty priority queue
+   * @throws IOException if the kind is unknown, or if the capacity or arity is invalid
+   */
+  private static PriorityQueueADT<Application> newQueue(int kind, int capacity, int arity)
+      throws IOException {
+    try {
+      switch (kind) {
+        case HEAP:
+          return new ApplicationQueue(capacity, arity);
+        case INDEXED:
+          return new IndexedApplicationQueue(capacity, arity);
+        case BUCKET:
+          return new BucketApplicationQueue(capacity);
+        case OFF_HEAP:
+          return new OffHeapApplicationQueue(capacity);
+        case MIN_MAX:
+          return new MinMaxApplicationQueue(capacity);
+        default:
+          throw new IOException("snapshot is corrupted");
+      }
+    } catch (IllegalArgumentException e) {
+      throw new IOException("snapshot is corrupted", e);
+    }
+  }
+
+  /**
+   * Writes the state of the given duplicate filter, or an empty Bloom filter length if it is null
+   *
+   * @param filter the duplicate filter of the position, or null
+   * @throws IOException if the file cannot be written
+   */
+  private void writeFilter(DuplicateEmailFilter filter) throws IOException {
+    ensureWritable(5 * Integer.BYTES);
+    if (filter == null) {
+      this.buffer.putInt(0);
+      return;
+    }
+
+    long[] bloom = filter.getBloom();
+    this.buffer.putInt(bloom.length);
+    this.buffer.putInt(filter.getMaxEntries());
+    this.buffer.putInt(filter.size());
+    this.buffer.putInt(filter.isSaturated() ? 1 : 0);
+    this.buffer.putInt(filter.getEntries());
+    for (long word : bloom) {
+      ensureWritable(Long.BYTES);
+      this.buffer.putLong(word);
+    }
+    for (long key : filter.getTable()) {
+      if (key != 0) {
+        ensureWritable(Long.BYTES);
+        this.buffer.putLong(key);
+      }
+    }
+  }
+
+  /**
+   * Reads the state of a duplicate filter written by writeFilter()
+   *
+   * @return the restored duplicate filter, or null if the position had none
+   * @throws IOException if the file cannot be read, or if it is corrupted
+   */
+  private DuplicateEmailFilter readFilter() throws IOException {
+    ensureReadable(Integer.BYTES);
+    int bloomLength = this.buffer.getInt();
+    if (bloomLength == 0) {
+      return null;
+    }
+
+    ensureReadable(4 * Integer.BYTES);
+    int maxEntries = this.buffer.getInt();
+    int size = this.buffer.getInt();
+    int saturated = this.buffer.getInt();
+    int entries = this.buffer.getInt();
+    if (Integer.bitCount(bloomLength) != 1 || bloomLength > 1 << 24 || saturated >>> 1 != 0
+        || entries < 0 || entries > maxEntries || entries > size
+        || (long) bloomLength * Long.BYTES > this.buffer.remaining() + this.remaining) {
+      throw new IOException("snapshot is corrupted");
+    }
+
+    long[] bloom = new long[bloomLength];
+    for (int i = 0; i < bloomLength; i++) {
+      ensureReadable(Long.BYTES);
+      bloom[i] = this.buffer.getLong();
+    }
+
+    DuplicateEmailFilter filter;
+    try {
+      filter = new DuplicateEmailFilter(bloom, maxEntries, size, saturated == 1);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("snapshot is corrupted", e);
+    }
+    for (int i = 0; i < entries; i++) {
+      ensureReadable(Long.BYTES);
+      if (!filter.restoreHash(this.buffer.getLong())) {
+        throw new IOException("snapshot is corrupted");
+      }
+    }
+    return filter;
+  }
+
+  /**
+   * Writes the entry of the given Application
+   *
+   * @param application the Application to save
+   * @throws IOException if the file cannot be written
+   */
+  private void writeApplication(Application application) throws IOException {
+    ensureWritable(Integer.BYTES);
+    this.buffer.putInt(application.getScore());
+    writeString(application.getName());
+    writeString(application.getEmail());
+  }
+
+  /**
+   * Writes the given String as its length in bytes followed by its UTF-8 bytes
+   *
+   * @param string the String to write
+   * @throws IOException if the file cannot be written
+   */
+  private void writeString(String string) throws IOException {
+    byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+    ensureWritable(Integer.BYTES + bytes.length);
+    this.buffer.putInt(bytes.length);
+    this.buffer.put(bytes);
+  }
+
+  /**
+   * Makes room for the given number of bytes in the buffer, by flushing it or growing it
+   *
+   * @param length the number of bytes about to be put in the buffer
+   * @throws IOException if the file cannot be written
+   */
+  private void ensureWritable(int length) throws IOException {
+    if (this.buffer.remaining() >= length) {
+      return;
+    }
+
+    flush();
+    if (this.buffer.capacity() < length) {
+      this.buffer = ByteBuffer.allocate(Math.max(length, this.buffer.capacity() * 2));
+    }
+  }
+
+  /**
+   * Writes the content of the buffer to the file and adds it to the checksum
+   *
+   * @throws IOException if the file cannot be written
+   */
+  private void flush() throws IOException {
+    this.buffer.flip();
+    this.checksum.update(this.buffer.array(), 0, this.buffer.limit());
+    while (this.buffer.hasRemaining()) {
+      this.channel.write(this.buffer);
+    }
+    this.buffer.clear();
+  }
+
+  /**
+   * Reads and checks the header, the entries and the trailer of a position
+   *
+   * @return the restored position
+   * @throws IOException if the file cannot be read, or if it is not a snapshot of a supported
+   *                     version, or if it is corrupted
+   */
+  private OpenPosition readPosition() throws IOException {
+    this.remaining = this.channel.size() - Integer.BYTES;
+    this.buffer.limit(0);
+
+    ensureReadable(2 * Integer.BYTES);
+    if (this.buffer.getInt() != MAGIC) {
+      throw new IOException("not a position snapshot");
+    }
+    int version = this.buffer.getInt();
+    if (version != 1 && version != VERSION) {
+      throw new IOException("unsupported snapshot version " + version);
+    }
+    ensureReadable(HEADER_LENGTH - (version == 1 ? 3 : 2) * Integer.BYTES);
+    int capacity = this.buffer.getInt();
+    int arity = this.buffer.getInt();
+    int size = this.buffer.getInt();
+    int kind = version == 1 ? HEAP : this.buffer.getInt();
+    byte[] positionName = readBytes();
+    ensureReadable(Integer.BYTES);
+    if (this.buffer.getInt() != headerChecksum(version, capacity, arity, size, kind, positionName)
+        || capacity <= 0 || arity < 2 || size < 0 || size > capacity) {
+      throw new IOException("snapshot is corrupted");
+    }
+
+    DuplicateEmailFilter filter = version == 1 ? null : readFilter();
+    OpenPosition position = new OpenPosition(new String(positionName, StandardCharsets.UTF_8),
+        capacity, newQueue(kind, capacity, arity), filter);
+    position.measureQueue();
+    try {
+      for (int i = 0; i < size; i++) {
+        ensureReadable(Integer.BYTES);
+        int score = this.buffer.getInt();
+        String name = readString();
+        String email = readString();
+        Application application = Application.tryCreate(name, email, score);
+        if (application == null) {
+          throw new IOException("snapshot is corrupted");
+        }
+        position.appendStored(application);
+      }
+    } catch (IllegalStateException e) {
+      throw new IOException("snapshot is corrupted", e);
+    }
+
+    // the whole file was read, the trailer holds the checksum of the previous bytes
+    if (this.buffer.hasRemaining() || this.remaining != 0) {
+      throw new IOException("snapshot is corrupted");
+    }
+    ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES);
+    while (trailer.hasRemaining()) {
+      if (this.channel.read(trailer) < 0) {
+        throw new IOException("snapshot is truncated");
+      }
+    }
+    if (trailer.getInt(0) != (int) this.checksum.getValue()) {
+      throw new IOException("snapshot checksum does not match");
+    }
+
+    return position;
+  }
+
+  /**
+   * Reads a String written by writeString()
+   *
+   * @return the read String
+   * @throws IOException if the file cannot be read, or if it is truncated
+   */
+  private String readString() throws IOException {
+    ensureReadable(Integer.BYTES);
+    int length = this.buffer.getInt();
+    if (length < 0) {
+      throw new IOException("snapshot is corrupted");
+    }
+
+    ensureReadable(length);
+    String string = new String(this.buffer.array(), this.buffer.position(), length,
+        StandardCharsets.UTF_8);
+    this.buffer.position(this.buffer.position() + length);
+    return string;
+  }
+
+  /**
+   * Reads the bytes of the position name, which follow their length as the last field of the
+   * header, when the header length is already readable
+   *
+   * @return the read bytes
+   * @throws IOException if the file cannot be read, or if it is truncated
+   */
+  private byte[] readBytes() throws IOException {
+    int length = this.buffer.getInt();
+    if (length < 0) {
+      throw new IOException("snapshot is corrupted");
+    }
+
+    ensureReadable(length);
+    byte[] bytes = new byte[length];
+    this.buffer.get(bytes);
+    return bytes;
+  }
+
+  /**
+   * Computes the checksum of the header fields, so that a corrupted capacity is detected before
+   * a queue of that capacity is allocated
+   *
+   * @param version      the version of the snapshot, 1 having no kind of priority queue
+   * @param capacity     the saved capacity
+   * @param arity        the saved arity of the heap
+   * @param size         the saved number of Applications
+   * @param kind         the saved kind of priority queue
+   * @param positionName the UTF-8 bytes of the saved position name
+   * @return the CRC32C checksum of the header fields
+   */
+  private static int headerChecksum(int version, int capacity, int arity, int size, int kind,
+      byte[] positionName) {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+    header.putInt(MAGIC).putInt(version).putInt(capacity).putInt(arity).putInt(size);
+    if (version != 1) {
+      header.putInt(kind);
+    }
+    header.putInt(positionName.length);
+
+    CRC32C checksum = new CRC32C();
+    checksum.update(header.array(), 0, header.position());
+    checksum.update(positionName);
+    return (int) checksum.getValue();
+  }
+
+  /**
+   * Makes sure that the buffer holds at least the given number of unparsed bytes, by reading as
+   * many bytes as fit in the buffer from the file, which are added to the checksum
+   *
+   * @param length the number of bytes about to be parsed
+   * @throws IOException if the file cannot be read, or if it ends before these bytes
+   */
+  private void ensureReadable(int length) throws IOException {
+    if (this.buffer.remaining() >= length) {
+      return;
+    }
+    if (length > this.buffer.remaining() + this.remaining) {
+      throw new IOException("snapshot is truncated");
+    }
+
+    // move the unparsed bytes to the start of the buffer, grown if too short
+    if (this.buffer.capacity() < length) {
+      ByteBuffer grown = ByteBuffer.allocate(Math.max(length, this.buffer.capacity() * 2));
+      grown.put(this.buffer);
+      this.buffer = grown;
+    } else {
+      this.buffer.compact();
+    }
+
+    // read as much as possible, without reading the trailer
+    int start = this.buffer.position();
+    this.buffer.limit((int) Math.min(this.buffer.capacity(), start + this.remaining));
+    while (this.buffer.hasRemaining()) {
+      if (this.channel.read(this.buffer) < 0) {
+        throw new IOException("snapshot is truncated");
+      }
+    }
+    this.checksum.update(this.buffer.array(), start, this.buffer.position() - start);
+    this.remaining -= this.buffer.position() - start;
+    this.buffer.flip();
+  }
+}
@@ -0,0 +1,222 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: PositionView.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.io.IOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Immutable, point-in-time view of an open position, returned by OpenPosition.snapshot(). The view
+ * shares the arrays of the heap of the position instead of copying them: the position copies them
+ * only if it is modified after the view was taken. A view can be read from any thread, for as
+ * long as needed, without blocking or being affected by the position.
+ */
+public class PositionView implements Iterable<Application> {
+  private final String positionName; // the name of the position
+  private final int capacity; // the number of vacancies of the position, taken or not
+  private final ApplicationQueue applications; // the frozen Applications, never modified
+  private final long totalScore; // sum of the scores of the Applications
+  private final int minScore; // lowest score, Application.MAX_SCORE + 1 if none
+  private final int maxScore; // highest score, Application.MIN_SCORE - 1 if none
+  private final int[] scoreCounts; // scoreCounts[s] is the number of Applications scoring s
+
+  /**
+   * Creates a new view of the given state of a position
+   *
+   * @param positionName the name of the position
+   * @param capacity     the number of vacancies of the position, taken or not
+   * @param applications a queue holding the Applications of the position, which is never modified
+   * @param totalScore   the sum of the scores of the Applications
+   * @param minScore     the lowest score, Application.MAX_SCORE + 1 if none
+   * @param maxScore     the highest score, Application.MIN_SCORE - 1 if none
+   * @param scoreCounts  a copy of the score histogram of the Applications
+   */
+  PositionView(String positionName, int capacity, ApplicationQueue applications, long totalScore,
+      int minScore, int maxScore, int[] scoreCounts) {
+    this.positionName = positionName;
+    this.capacity = capacity;
+    this.applications = applications;
+    this.totalScore = totalScore;
+    this.minScore = minScore;
+    this.maxScore = maxScore;
+    this.scoreCounts = scoreCounts;
+  }
+
+  public String getPositionName() {
+    return this.positionName;
+  }
+
+  /**
+   * Returns the number of vacancies of the position, taken or not
+   *
+   * @return the capacity of the position
+   */
+  public int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Checks whether all the vacancies of the position were taken
+   *
+   * @return {@code true} if the position was full
+   */
+  public boolean isFull() {
+    return this.applications.size() == this.capacity;
+  }
+
+  /**
+   * Returns the list of Applications in the view.
+   *
+   * @return The list of Applications in the view, in increasing order of the scores.
+   */
+  public String getApplications() {
+    return this.applications.toString();
+  }
+
+  /**
+   * Writes the Applications of this view to the given Appendable, such as a Writer, one line per
+   * Application in increasing order of the scores, in the format of getApplications(). Unlike
+   * getApplications(), uses constant memory, streaming the Applications one score at a time:
+   * Applications having the same score are written in the order of sortedArray().
+   * 
+   * @param out where to write the Applications
+   * @throws IOException if the Appendable cannot be written
+   */
+  public void exportApplications(Appendable out) throws IOException {
+    ShortlistExporter.export(this.applications.exportOrder(), out);
+  }
+
+  /**
+   * Writes the Applications of this view to the given channel, UTF-8 encoded, one line per
+   * Application in increasing order of the scores, in the format of exportApplications(Appendable).
+   * Uses constant memory.
+   * 
+   * @param channel where to write the Applications
+   * @throws IOException if the channel cannot be written
+   */
+  public void exportApplications(WritableByteChannel channel) throws IOException {
+    ShortlistExporter.export(this.applications.exportOrder(), channel);
+  }
+
+  /**
+   * Returns a page of the Applications of this view in increasing order of the scores, read lazily
+   * in iteration order as getApplications() lists them, in O(k log k) time for k = offset + limit.
+   * 
+   * @param offset the number of lowest-scored Applications to skip
+   * @param limit  the maximum number of Applications to return
+   * @return a new list of at most limit Applications
+   * @throws IllegalArgumentException if the offset or the limit is negative
+   */
+  public List<Application> getApplications(int offset, int limit) {
+    return ShortlistExporter.page(this.applications, offset, limit);
+  }
+
+  /**
+   * Returns a new array containing the Applications of this view in increasing order of the
+   * scores, sorted in O(n) time.
+   * 
+   * @return a new array of the Applications of this view, from the lowest-scored to the
+   *         highest-scored
+   */
+  public Application[] sortedArray() {
+    return this.applications.sortedArray();
+  }
+
+  /**
+   * Returns an unmodifiable list of the Applications of this view in increasing order of the
+   * scores, sorted in O(n) time
+   * 
+   * @return a new unmodifiable list of the Applications of this view, from the lowest-scored
+   *         to the highest-scored
+   */
+  public List<Application> sortedList() {
+    return Collections.unmodifiableList(Arrays.asList(sortedArray()));
+  }
+
+  /**
+   * Returns the total score of Applications in the view.
+   *
+   * @return The total score of Applications in the view.
+   */
+  public long getTotalScore() {
+    return this.totalScore;
+  }
+
+  /**
+   * Returns the number of Applications in the view.
+   *
+   * @return The number of Applications in the view.
+   */
+  public int getApplicationCount() {
+    return this.applications.size();
+  }
+
+  /**
+   * Returns the lowest score of the Applications in the view.
+   *
+   * @return The lowest score of the Applications in the view.
+   * @throws NoSuchElementException if there is no Application in the view
+   */
+  public int getMinScore() {
+    if (this.applications.isEmpty()) {
+      throw new NoSuchElementException("no application in this view");
+    }
+    return this.minScore;
+  }
+
+  /**
+   * Returns the highest score of the Applications in the view.
+   *
+   * @return The highest score of the Applications in the view.
+   * @throws NoSuchElementException if there is no Application in the view
+   */
+  public int getMaxScore() {
+    if (this.applications.isEmpty()) {
+      throw new NoSuchElementException("no application in this view");
+    }
+    return this.maxScore;
+  }
+
+  /**
+   * Returns the mean score of the Applications in the view.
+   *
+   * @return The mean score of the Applications in the view, 0 if there is none.
+   */
+  public double getMeanScore() {
+    if (this.applications.isEmpty()) {
+      return 0;
+    }
+    return (double) this.totalScore / this.applications.size();
+  }
+
+  /**
+   * Returns the number of Applications in the view having the given score.
+   *
+   * @param score a score in the Application.MIN_SCORE .. Application.MAX_SCORE range
+   * @return The number of Applications in the view having the given score.
+   * @throws IllegalArgumentException if score is not in the 0 .. 100 range
+   */
+  public int getScoreCount(int score) {
+    if (score > Application.MAX_SCORE || score < Application.MIN_SCORE) {
+      throw new IllegalArgumentException("provided score is not in the 0 .. 100 range");
+    }
+    return this.scoreCounts[score - Application.MIN_SCORE];
+  }
+
+  /**
+   * Returns an Iterator over the Applications of the view, from the lowest-scored to the
+   * highest-scored, which walks the shared heap without copying it
+   *
+   * @return an Iterator over the Applications of the view
+   */
+  @Override
+  public Iterator<Application> iterator() {
+    return this.applications.iterator();
+  }
+}
@@ -3,15 +3,19 @@
 // Title: PriorityQueueADT.java
 ///////////////////////////////////////////////////////////////////////////////
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
- * This interface models the priority queue abstract data type
+ * This interface models the priority queue abstract data type. Iterating over a priority queue
+ * visits its elements in the order they would be dequeued, without removing them.
  *
  * @param <T> type parameter bounded by the Comparable interface. Represents the type of elements
  *            stored in this priority queue.
  */
-public interface PriorityQueueADT<T extends Comparable<T>> {
+public interface PriorityQueueADT<T extends Comparable<T>> extends Iterable<T> {
   /**
    * Checks if this priority queue is empty.
    *
@@ -52,4 +56,110 @@ public interface PriorityQueueADT<T extends Comparable<T>> {
    * @throws NoSuchElementException with a descriptive error message if this queue is empty
    */
   public T peek();
+
+  /**
+   * Replaces the element at the front (aka root position) of this queue with the given element,
+   * and restores the priority order. This is equivalent to a dequeue() followed by an enqueue(),
+   * but may be implemented more efficiently.
+   *
+   * @param element to be added to this queue
+   * @return the removed element
+   * @throws NullPointerException   if element is null
+   * @throws NoSuchElementException with a descriptive error message if this queue is empty
+   */
+  public T replaceTop(T element);
+
+  /**
+   * Adds the given element to this queue if it is not full. Otherwise, replaces the element at the
+   * front (aka root position) of this queue with the given element if the front element compares
+   * lower than it, so that a full queue keeps the elements comparing the highest.
+   *
+   * @param element to be offered to this queue
+   * @return {@code null} if the element was added without removing any element, the removed front
+   *         element if it was replaced by the given element, or the given element itself if it was
+   *         not added
+   * @throws NullPointerException if element is null
+   */
+  public T offer(T element);
+
+  /**
+   * Checks whether this queue cannot hold the given element because it already holds an element
+   * having the same identity, such as the same email. Returns false by default: queues accept
+   * equal elements.
+   *
+   * @param element an element about to be added to this queue
+   * @return {@code true} if adding the given element would duplicate an element of this queue
+   */
+  public default boolean isDuplicate(T element) {
+    return false;
+  }
+
+  /**
+   * Returns the elements of this queue in increasing order, as when exporting all of them, with
+   * the least memory this queue supports. This is the iteration order by default.
+   *
+   * @return the elements of this queue in increasing order
+   */
+  public default Iterable<T> exportOrder() {
+    return this;
+  }
+
+  /**
+   * Returns an unmodifiable list of the elements of this queue in increasing order. This copies
+   * the iteration order by default.
+   *
+   * @return a new unmodifiable list of the elements of this queue, from the lowest to the highest
+   */
+  public default List<T> sortedList() {
+    List<T> sorted = new ArrayList<>(size());
+    for (T element : this) {
+      sorted.add(element);
+    }
+    return Collections.unmodifiableList(sorted);
+  }
+
+  /**
+   * Returns the n highest elements of this queue. By default, they are read from the end of
+   * sortedList().
+   *
+   * @param n the number of elements to return
+   * @return a new list of the min(n, size()) highest elements, in decreasing order
+   * @throws IllegalArgumentException if n is negative
+   */
+  public default List<T> topCandidates(int n) {
+    if (n < 0) {
+      throw new IllegalArgumentException("number of candidates is negative");
+    }
+
+    List<T> sorted = sortedList();
+    List<T> top = new ArrayList<>(Math.min(n, sorted.size()));
+    for (int i = sorted.size() - 1; i >= 0 && top.size() < n; i--) {
+      top.add(sorted.get(i));
+    }
+    return top;
+  }
+
+  /**
+   * Returns the elements of this queue in the order in which they are stored, so that appending
+   * them with appendStored() to an empty queue of the same class rebuilds the same queue, ties
+   * included. This is the iteration order by default.
+   *
+   * @return the elements of this queue in their stored order
+   */
+  public default Iterable<T> storedOrder() {
+    return this;
+  }
+
+  /**
+   * Adds the given element, the next one returned by storedOrder() for a saved queue, without
+   * reordering the previous elements. This is enqueue() by default.
+   *
+   * @param element to be added to this queue
+   * @throws NullPointerException  if element is null
+   * @throws IllegalStateException with a descriptive error message if this priority queue is full,
+   *                               or if the element does not follow the stored order
+   */
+  public default void appendStored(T element) {
+    enqueue(element);
+  }
 }
@@ -0,0 +1,111 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: ScoreBucketIterator.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Implements an iterator over the Applications of an ApplicationQueue in increasing order of the
+ * scores, for streaming a whole queue out.
+ *
+ * Since scores are in the 0 .. 100 range, the iterator counts the Applications of each score when
+ * it is created, then scans the array-heap once per populated score, from the first index having
+ * that score until every Application of the score was returned. It uses constant memory whatever
+ * the size of the queue, unlike ApplicationIterator whose frontier grows with the number of
+ * returned elements, at the cost of reading the parallel scores up to once per distinct score.
+ * Applications having the same score are returned in array-heap order, as by sortedArray().
+ */
+public class ScoreBucketIterator implements Iterator<Application> {
+  private final ApplicationQueue queue; // the priority queue of applications to iterate over
+  private final int expectedModCount; // modification count of the queue when this was created
+  private final int[] counts; // counts[s] is the number of Applications scoring s
+  private final int[] firsts; // firsts[s] is the first index of the heap storing a score of s
+  private int score; // score of the Applications currently returned, minus MIN_SCORE
+  private int index; // index of the heap from which the next Application is searched
+  private int remaining; // number of Applications of the current score not returned yet
+
+  /**
+   * Creates a new ScoreBucketIterator which iterates over the elements of the given
+   * ApplicationQueue in order from lowest-scored application to the highest-scored application.
+   * The queue must not be modified while it is iterated over.
+   *
+   * @param queue the ApplicationQueue to iterate over
+   */
+  public ScoreBucketIterator(ApplicationQueue queue) {
+    this.queue = queue;
+    this.expectedModCount = queue.modCount;
+    this.counts = new int[Application.MAX_SCORE - Application.MIN_SCORE + 1];
+    this.firsts = new int[this.counts.length];
+
+    for (int i = queue.size() - 1; i >= 0; i--) {
+      int s = queue.getScore(i) - Application.MIN_SCORE;
+      this.counts[s]++;
+      this.firsts[s] = i;
+    }
+
+    // the root has the lowest score
+    if (!queue.isEmpty()) {
+      startBucket(queue.getScore(0) - Application.MIN_SCORE);
+    }
+  }
+
+  /**
+   * Returns true if the iteration has more elements.
+   *
+   * @return {@code true} if the iteration has more elements
+   */
+  @Override
+  public boolean hasNext() {
+    return this.remaining != 0;
+  }
+
+  /**
+   * Returns the next element in the iteration.
+   *
+   * @return the next element in the iteration.
+   * @throws NoSuchElementException          with a descriptive error message if the iteration has
+   *                                         no more elements
+   * @throws ConcurrentModificationException if the queue was modified since this iterator was
+   *                                         created
+   */
+  @Override
+  public Application next() {
+    if (!hasNext())
+      throw new NoSuchElementException("No more elements in this iteration");
+    if (this.queue.modCount != this.expectedModCount)
+      throw new ConcurrentModificationException("the queue was modified during the iteration");
+
+    // the next index storing the current score
+    int target = this.score + Application.MIN_SCORE;
+    while (this.queue.getScore(this.index) != target) {
+      this.index++;
+    }
+    Application next = this.queue.get(this.index++);
+
+    // move on to the next populated score once the current one is exhausted
+    if (--this.remaining == 0) {
+      int s = this.score + 1;
+      while (s < this.counts.length && this.counts[s] == 0) {
+        s++;
+      }
+      if (s < this.counts.length) {
+        startBucket(s);
+      }
+    }
+    return next;
+  }
+
+  /**
+   * Starts returning the Applications of the given score
+   *
+   * @param s a populated score, minus Application.MIN_SCORE
+   */
+  private void startBucket(int s) {
+    this.score = s;
+    this.index = this.firsts[s];
+    this.remaining = this.counts[s];
+  }
+}
@@ -0,0 +1,200 @@
+//////////////// FILE HEADER (INCLUDE IN EVERY FILE) //////////////////////////
+//
+// Title: ShortlistExporter.java
+///////////////////////////////////////////////////////////////////////////////
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Streams shortlists, in increasing order of the scores, instead of building them into a single
+ * String. Each Application is written as a line in the format of getApplications(), appending its
+ * fields one by one, so that exporting only uses the memory of the given Iterable's iterator: a
+ * constant one for the ScoreBucketIterator of an ApplicationQueue.
+ */
+public class ShortlistExporter {
+  private static final int BUFFER_LENGTH = 1 << 13; // length of the encode buffers
+  private static final String[] SCORES = scoreStrings(); // SCORES[s] is s as a String
+
+  /**
+   * Writes the given Applications to the given Appendable, such as a Writer or a StringBuilder,
+   * one line per Application
+   *
+   * @param applications the Applications to export, iterated in increasing order of the scores
+   * @param out          where to write the Applications
+   * @throws IOException if the Appendable cannot be written
+   */
+  public static void export(Iterable<Application> applications, Appendable out)
+      throws IOException {
+    for (Application a : applications) {
+      out.append(a.getName()).append(':').append(a.getEmail()).append(':');
+      int score = a.getScore();
+      if (score >= 0 && score < SCORES.length) {
+        out.append(SCORES[score]);
+      } else {
+        out.append(Integer.toString(score));
+      }
+      out.append('\n');
+    }
+  }
+
+  /**
+   * Writes the given Applications to the given channel, UTF-8 encoded, one line per Application.
+   * The lines are encoded through two reusable buffers.
+   *
+   * @param applications the Applications to export, iterated in increasing order of the scores
+   * @param channel      where to write the Applications
+   * @throws IOException if the channel cannot be written
+   */
+  public static void export(Iterable<Application> applications, WritableByteChannel channel)
+      throws IOException {
+    ChannelAppendable out = new ChannelAppendable(channel);
+    export(applications, out);
+    out.flush();
+  }
+
+  /**
+   * Returns a page of the given Applications in increasing order of the scores, skipping the
+   * first offset Applications
+   *
+   * @param applications the Applications to page, iterated in increasing order of the scores
+   * @param offset       the number of Applications to skip
+   * @param limit        the maximum number of Applications to return
+   * @return a new list of at most limit Applications
+   * @throws IllegalArgumentException if the offset or the limit is negative
+   */
+  public static List<Application> page(Iterable<Application> applications, int offset,
+      int limit) {
+    if (offset < 0 || limit < 0) {
+      throw new IllegalArgumentException("offset or limit is negative");
+    }
+
+    List<Application> page = new ArrayList<>(Math.min(limit, 1024));
+    Iterator<Application> iterator = applications.iterator();
+    for (int i = 0; i < offset && iterator.hasNext(); i++) {
+      iterator.next();
+    }
+    while (page.size() < limit && iterator.hasNext()) {
+      page.add(iterator.next());
+    }
+    return page;
+  }
+
+  /**
+   * Creates the Strings of every valid score
+   *
+   * @return a new array whose element at index s is the String of s
+   */
+  private static String[] scoreStrings() {
+    String[] scores = new String[Application.MAX_SCORE + 1];
+    for (int i = 0; i < scores.length; i++) {
+      scores[i] = Integer.toString(i);
+    }
+    return scores;
+  }
+
+  /**
+   * Appendable encoding its chars to a channel: chars are gathered in a buffer, then encoded into
+   * a byte buffer which is written to the channel whenever it is full
+   */
+  private static class ChannelAppendable implements Appendable {
+    private final WritableByteChannel channel; // where to write the bytes
+    private final CharsetEncoder encoder; // encodes the chars to UTF-8
+    private final CharBuffer chars; // chars not encoded yet
+    private final ByteBuffer bytes; // bytes not written yet
+
+    private ChannelAppendable(WritableByteChannel channel) {
+      this.channel = channel;
+      this.encoder = StandardCharsets.UTF_8.newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+      this.chars = CharBuffer.allocate(BUFFER_LENGTH);
+      this.bytes = ByteBuffer.allocate(BUFFER_LENGTH * 3);
+    }
+
+    @Override
+    public Appendable append(CharSequence csq) throws IOException {
+      return append(csq, 0, csq.length());
+    }
+
+    @Override
+    public Appendable append(CharSequence csq, int start, int end) throws IOException {
+      String string = csq.toString();
+      while (start < end) {
+        if (!this.chars.hasRemaining()) {
+          encode(false);
+        }
+        int length = Math.min(end - start, this.chars.remaining());
+        this.chars.put(string, start, start + length);
+        start += length;
+      }
+      return this;
+    }
+
+    @Override
+    public Appendable append(char c) throws IOException {
+      if (!this.chars.hasRemaining()) {
+        encode(false);
+      }
+      this.chars.put(c);
+      return this;
+    }
+
+    /**
+     * Encodes the buffered chars and writes the resulting bytes to the channel. A high surrogate
+     * ending the buffer is kept until the next chars, to be encoded with its low surrogate.
+     *
+     * @param endOfInput whether no more chars will be appended
+     * @throws IOException if the channel cannot be written
+     */
+    private void encode(boolean endOfInput) throws IOException {
+      this.chars.flip();
+      while (true) {
+        CoderResult result = this.encoder.encode(this.chars, this.bytes, endOfInput);
+        if (result.isError()) {
+          result.throwException();
+        }
+        write();
+        if (result.isUnderflow()) {
+          break;
+        }
+      }
+      this.chars.compact();
+    }
+
+    /**
+     * Writes all the encoded bytes to the channel
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    private void write() throws IOException {
+      this.bytes.flip();
+      while (this.bytes.hasRemaining()) {
+        this.channel.write(this.bytes);
+      }
+      this.bytes.clear();
+    }
+
+    /**
+     * Encodes and writes every appended char
+     *
+     * @throws IOException if the channel cannot be written
+     */
+    private void flush() throws IOException {
+      encode(true);
+      while (!this.encoder.flush(this.bytes).isUnderflow()) {
+        write();
+      }
+      write();
+    }
+  }
+}